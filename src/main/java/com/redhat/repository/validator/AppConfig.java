@@ -21,6 +21,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.model.building.DefaultModelBuildingRequest;
 import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.io.ModelReader;
 import org.eclipse.aether.ConfigurationProperties;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
@@ -33,6 +34,7 @@ import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.util.artifact.DefaultArtifactTypeRegistry;
 import org.eclipse.aether.util.graph.manager.ClassicDependencyManager;
+import org.eclipse.aether.util.listener.ChainedRepositoryListener;
 import org.eclipse.aether.util.graph.selector.AndDependencySelector;
 import org.eclipse.aether.util.graph.selector.ExclusionDependencySelector;
 import org.eclipse.aether.util.graph.selector.ScopeDependencySelector;
@@ -55,11 +57,17 @@ import com.redhat.repository.validator.impl.bom.BomFilter;
 import com.redhat.repository.validator.impl.bom.BomFilterSimple;
 import com.redhat.repository.validator.impl.remoterepository.ChecksumProviderNexus;
 import com.redhat.repository.validator.impl.remoterepository.ChecksumProviderNginx;
+import com.redhat.repository.validator.impl.remoterepository.RemoteChecksumCache;
 import com.redhat.repository.validator.impl.remoterepository.RemoteRepositoryCollisionValidator;
 import com.redhat.repository.validator.internal.DepthOneOptionalDependencySelector;
+import com.redhat.repository.validator.internal.FileDigests;
+import com.redhat.repository.validator.internal.IncrementalValidation;
 import com.redhat.repository.validator.internal.LocalRepositoryModelResolver;
 import com.redhat.repository.validator.internal.LogRepositoryListener;
 import com.redhat.repository.validator.internal.LogTransferListener;
+import com.redhat.repository.validator.internal.ResolutionLedger;
+import com.redhat.repository.validator.internal.SessionCache;
+import com.redhat.repository.validator.internal.ValidatedRepositoryWorkspaceReader;
 
 @Configuration
 @ComponentScan(
@@ -81,13 +89,38 @@ public class AppConfig {
 
     @Value("#{systemProperties['redhat-repository-validator-remoteRepositories']?.split(';')}")
     private String[] remoteRepositories;
+
+    @Value("#{systemProperties['redhat-repository-validator-validationThreads']?:0}")
+    private int validationThreads;
+
+    @Value("#{systemProperties['redhat-repository-validator-incrementalState']}")
+    private String incrementalState;
+
+    @Value("#{systemProperties['redhat-repository-validator-remoteMaxConnections']?:50}")
+    private int remoteMaxConnections;
+
+    @Value("#{systemProperties['redhat-repository-validator-remoteHedgingBudget']?:0}")
+    private double remoteHedgingBudget;
+
+    @Value("#{systemProperties['redhat-repository-validator-remoteChecksumCache']?:'workspace/remote-checksum-cache'}")
+    private String remoteChecksumCache;
+
+    @Value("#{systemProperties['redhat-repository-validator-sessionCacheDescriptors']?:20000}")
+    private int sessionCacheDescriptors;
+
+    @Value("#{systemProperties['redhat-repository-validator-resolveValidatedInPlace']?:false}")
+    private boolean resolveValidatedInPlace;
     
     @Autowired(required = false)
     private ExceptionFilter[] exceptionFilters;
 
     @Bean
-    public ValidationExecutor validationExecutor(Validator[] validators) {
-        return new ValidationExecutor(validators);
+    public ValidationExecutor validationExecutor(Validator[] validators, ModelReader modelReader) {
+        IncrementalValidation incrementalValidation = null;
+        if (StringUtils.isNotEmpty(incrementalState)) {
+            incrementalValidation = new IncrementalValidation(new File(incrementalState), modelReader, fileDigests());
+        }
+        return new ValidationExecutor(validationThreads, incrementalValidation, validators);
     }
 
     @Bean
@@ -182,12 +215,16 @@ public class AppConfig {
     
     @Bean
     public RemoteRepositoryCollisionValidator collisionValidatorMavenCentral() {
-        return new RemoteRepositoryCollisionValidator("http://repo1.maven.org/maven2/", new ChecksumProviderNginx(), collisionValidatorMavenCentralFilter(), 20);
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator("http://repo1.maven.org/maven2/", new ChecksumProviderNginx(), collisionValidatorMavenCentralFilter(), remoteMaxConnections);
+        validator.setHedgingBudget(remoteHedgingBudget);
+        return validator;
     }
     
     @Bean
     public RemoteRepositoryCollisionValidator collisionValidatorJBossNexus() {
-        return new RemoteRepositoryCollisionValidator("https://repository.jboss.org/nexus/content/groups/public-jboss/", new ChecksumProviderNexus(), collisionValidatorJBossNexusFilter(), 20);
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator("https://repository.jboss.org/nexus/content/groups/public-jboss/", new ChecksumProviderNexus(), collisionValidatorJBossNexusFilter(), remoteMaxConnections);
+        validator.setHedgingBudget(remoteHedgingBudget);
+        return validator;
     }
     
     @Bean
@@ -295,6 +332,26 @@ public class AppConfig {
         return new LocalRepository(localRepository);
     }
 
+    @Bean
+    public RemoteChecksumCache remoteChecksumCache() {
+        return new RemoteChecksumCache(new File(remoteChecksumCache));
+    }
+
+    @Bean
+    public FileDigests fileDigests() {
+        return new FileDigests();
+    }
+
+    @Bean
+    public ResolutionLedger resolutionLedger() {
+        return new ResolutionLedger(fileDigests());
+    }
+
+    @Bean
+    public SessionCache sessionCache() {
+        return new SessionCache(sessionCacheDescriptors);
+    }
+
     @Bean
     public RepositorySystemSession repositorySystemSession(RepositorySystem repositorySystem) {
         // see MavenRepositorySystemUtils.newSession()
@@ -320,7 +377,11 @@ public class AppConfig {
         session.setDependencySelector(selector);
         session.setDependencyGraphTransformer(transformer);
         session.setTransferListener(new LogTransferListener());
-        session.setRepositoryListener(new LogRepositoryListener());
+        session.setRepositoryListener(new ChainedRepositoryListener(new LogRepositoryListener(), resolutionLedger()));
+        session.setCache(sessionCache());
+        if (resolveValidatedInPlace) {
+            session.setWorkspaceReader(new ValidatedRepositoryWorkspaceReader());
+        }
 
         if (!session.getConfigProperties().containsKey(ConfigurationProperties.REQUEST_TIMEOUT)) {
             session.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, 3 * 60 * 1000);
@@ -32,9 +32,10 @@ public class AppRunner {
     }
 
     private final Option validatedRepositoryOption = createOption("vr", "validated-repository", "validate given repository, \ndefault value is `workspace/validated-repository`", "dir");
-    private final Option validatedDistributionOption = createOption("vd", "validated-distribution", "validate given distribution, verify if current distribution is valid, \ndefault value is `workspace/validated-distribution`", "dir");
+    private final Option validatedDistributionOption = createOption("vd", "validated-distribution", "validate given distribution directory or zip archive, verify if current distribution is valid, \ndefault value is `workspace/validated-distribution`", "dir");
     private final Option localRepositoryOption = createOption("lr", "local-repository", "use given local repository, \ndefault value is `workspace/local-repository`", "dir");
     private final Option remoteRepositoryOption = createOption("rr", "remote-repository", "use given remote repository, this option can be used multiple times, \ndefault remote repository is only maven central", "url");
+    private final Option incrementalStateOption = createOption("is", "incremental-state", "validate only directories changed since the run which stored given state file, \nonly per-file validators are incremental, validators of whole repository \n(dependencies, models, boms, versions, distribution, remote repositories) always run fully, \nincremental validation is disabled by default", "file");
     private final Option configOption = createOption("c", "config", "use given configuration file, \ndefault value is `redhat-repository-validator-config.xml`", "file");
     private final Option helpOption = createOption("h", "help", "print help and exit", null);
 
@@ -55,6 +56,7 @@ public class AppRunner {
         options.addOption(validatedDistributionOption);
         options.addOption(localRepositoryOption);
         options.addOption(remoteRepositoryOption);
+        options.addOption(incrementalStateOption);
         options.addOption(configOption);
         options.addOption(helpOption);
         
@@ -112,6 +114,9 @@ public class AppRunner {
         System.setProperty("redhat-repository-validator-validatedDistribution", validatedDist);
         System.setProperty("redhat-repository-validator-localRepository", localRepo);
         System.setProperty("redhat-repository-validator-remoteRepositories", StringUtils.defaultString(StringUtils.join(remoteRepos, ';')));
+        if (line.hasOption(incrementalStateOption.getOpt())) {
+            System.setProperty("redhat-repository-validator-incrementalState", line.getOptionValue(incrementalStateOption.getOpt()));
+        }
 
         String userConfigFile = line.getOptionValue(configOption.getOpt());
         if (userConfigFile == null) {
@@ -2,18 +2,56 @@ package com.redhat.repository.validator;
 
 import static org.springframework.core.annotation.AnnotationAwareOrderComparator.sort;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.redhat.repository.validator.internal.FileDigests;
+import com.redhat.repository.validator.internal.IncrementalValidation;
 
 public class ValidationExecutor {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ValidationExecutor.class);
 
     private final Validator[] validators;
+    private final int threads;
+    private final IncrementalValidation incrementalValidation;
+    private FileDigests fileDigests;
 
     public ValidationExecutor(Validator... validators) {
+        this(0, null, validators);
+    }
+
+    /**
+     * @param threads maximum number of validators running at once, zero or less means no limit except the resource limits
+     * @param incrementalValidation state of previous run, or <code>null</code> to validate always whole repository
+     */
+    public ValidationExecutor(int threads, IncrementalValidation incrementalValidation, Validator... validators) {
         sort(validators);
         this.validators = validators;
+        this.threads = threads > 0 ? threads : Math.max(1, validators.length);
+        this.incrementalValidation = incrementalValidation;
+    }
+
+    @Autowired(required = false)
+    public void setFileDigests(FileDigests fileDigests) {
+        this.fileDigests = fileDigests;
     }
 
     public Validator[] getValidators() {
@@ -22,15 +60,110 @@ public class ValidationExecutor {
 
     public void execute(ValidatorContext ctx) {
         logValidatorNames();
+        ctx.resetRepositoryInventory();
+        ctx.setValidatorOrder(Arrays.asList(validators));
+        if (fileDigests != null) {
+            fileDigests.clear();
+        }
+
+        IncrementalValidation.Run incrementalRun = null;
+        ValidatorContext incrementalCtx = ctx;
+        if (incrementalValidation != null) {
+            incrementalRun = incrementalValidation.start(ctx, findIncrementalValidators());
+            if (incrementalRun.getRepositoryInventory() != null) {
+                incrementalCtx = new ValidatorContext(ctx, incrementalRun.getRepositoryInventory());
+            }
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("validator-%d").setDaemon(true).build());
+        try {
+            new ExecutionRun(ctx, incrementalCtx, executorService).execute();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        if (incrementalRun != null) {
+            incrementalRun.finish();
+        }
+    }
+
+    private List<Validator> findIncrementalValidators() {
+        List<Validator> incrementalValidators = new ArrayList<Validator>();
         for (Validator validator : validators) {
+            if (getExecution(validator).incremental()) {
+                incrementalValidators.add(validator);
+            }
+        }
+        return incrementalValidators;
+    }
+
+    private void execute(ValidatorContext ctx, Validator validator, Semaphore resourceLimit) {
+        resourceLimit.acquireUninterruptibly();
+        try {
             logger.debug("starting {}", validator);
+            long start = System.currentTimeMillis();
             try {
                 validator.validate(ctx);
             } catch (RuntimeException e) {
                 logger.error("validator " + validator + " ended with unexpected exception!", e);
                 ctx.addError(null, ctx.getValidatedRepository(), e);
             }
+            logger.debug("finished {} in {} ms", validator, System.currentTimeMillis() - start);
+        } finally {
+            resourceLimit.release();
+        }
+    }
+
+    private Set<Validator> findDependencies(Validator validator) {
+        Set<Validator> dependencies = new HashSet<Validator>();
+        for (Class<? extends Validator> dependencyType : getExecution(validator).dependsOn()) {
+            for (Validator dependency : validators) {
+                if (dependency != validator && dependencyType.isInstance(dependency)) {
+                    dependencies.add(dependency);
+                }
+            }
         }
+        return dependencies;
+    }
+
+    private void checkCycles(Map<Validator, List<Validator>> dependents) {
+        Map<Validator, Integer> dependenciesCount = new IdentityHashMap<Validator, Integer>();
+        for (Validator validator : validators) {
+            dependenciesCount.put(validator, 0);
+        }
+        for (List<Validator> validatorDependents : dependents.values()) {
+            for (Validator dependent : validatorDependents) {
+                dependenciesCount.put(dependent, dependenciesCount.get(dependent) + 1);
+            }
+        }
+
+        List<Validator> queue = new ArrayList<Validator>();
+        for (Validator validator : validators) {
+            if (dependenciesCount.get(validator) == 0) {
+                queue.add(validator);
+            }
+        }
+        for (int i = 0; i < queue.size(); i++) {
+            for (Validator dependent : dependents.get(queue.get(i))) {
+                int count = dependenciesCount.get(dependent) - 1;
+                dependenciesCount.put(dependent, count);
+                if (count == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        if (queue.size() != validators.length) {
+            throw new IllegalStateException("Validators have cyclic dependencies");
+        }
+    }
+
+    private static ValidatorExecution getExecution(Validator validator) {
+        ValidatorExecution execution = AnnotationUtils.findAnnotation(validator.getClass(), ValidatorExecution.class);
+        if (execution == null) {
+            execution = DefaultExecution.class.getAnnotation(ValidatorExecution.class);
+        }
+        return execution;
     }
 
     private void logValidatorNames() {
@@ -43,4 +176,83 @@ public class ValidationExecutor {
         logger.debug("following validators will be executed:\n" + validatorNamesBuilder);
     }
 
+    @ValidatorExecution
+    private static class DefaultExecution {
+    }
+
+    /**
+     * Executes validators as a graph, validator is submitted once all its dependencies are finished.
+     */
+    private class ExecutionRun {
+
+        private final ValidatorContext ctx;
+        private final ValidatorContext incrementalCtx;
+        private final ExecutorService executorService;
+        private final Map<Validator, List<Validator>> dependents = new IdentityHashMap<Validator, List<Validator>>();
+        private final Map<Validator, AtomicInteger> unfinishedDependencies = new IdentityHashMap<Validator, AtomicInteger>();
+        private final Map<ValidatorResource, Semaphore> resourceLimits = new EnumMap<ValidatorResource, Semaphore>(ValidatorResource.class);
+        private final CountDownLatch finished = new CountDownLatch(validators.length);
+
+        private ExecutionRun(ValidatorContext ctx, ValidatorContext incrementalCtx, ExecutorService executorService) {
+            this.ctx = ctx;
+            this.incrementalCtx = incrementalCtx;
+            this.executorService = executorService;
+
+            for (Validator validator : validators) {
+                dependents.put(validator, new ArrayList<Validator>());
+            }
+            for (Validator validator : validators) {
+                Set<Validator> dependencies = findDependencies(validator);
+                for (Validator dependency : dependencies) {
+                    dependents.get(dependency).add(validator);
+                }
+                unfinishedDependencies.put(validator, new AtomicInteger(dependencies.size()));
+            }
+            checkCycles(dependents);
+
+            for (ValidatorResource resource : ValidatorResource.values()) {
+                resourceLimits.put(resource, new Semaphore(resource.getDefaultLimit(), true));
+            }
+        }
+
+        private void execute() {
+            // roots are collected before submitting, finished validators already decrement counters of their dependents
+            List<Validator> roots = new ArrayList<Validator>();
+            for (Validator validator : validators) {
+                if (unfinishedDependencies.get(validator).get() == 0) {
+                    roots.add(validator);
+                }
+            }
+            for (Validator validator : roots) {
+                submit(validator);
+            }
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void submit(final Validator validator) {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ValidatorExecution execution = getExecution(validator);
+                        ValidationExecutor.this.execute(execution.incremental() ? incrementalCtx : ctx, validator, resourceLimits.get(execution.resource()));
+                    } finally {
+                        for (Validator dependent : dependents.get(validator)) {
+                            if (unfinishedDependencies.get(dependent).decrementAndGet() == 0) {
+                                submit(dependent);
+                            }
+                        }
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+    }
+
 }
@@ -10,6 +10,10 @@ import java.util.List;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import com.redhat.repository.validator.internal.RepositoryInventory;
+import com.redhat.repository.validator.internal.ValidationErrorSink;
 
 public class ValidatorContext {
 
@@ -19,8 +23,9 @@ public class ValidatorContext {
     private final File validatedDistribution;
     private final List<RemoteRepository> remoteRepositories;
     private final List<ExceptionFilter> exceptionFilters;
-    private final List<ValidationError> errors = new ArrayList<ValidationError>();
-    private final List<ValidationError> ignoredErrors = new ArrayList<ValidationError>();
+    private final ValidationErrorSink errors;
+    private final ValidationErrorSink ignoredErrors;
+    private RepositoryInventory repositoryInventory;
 
     public ValidatorContext(File validatedRepository, File validatedDistribution, List<RemoteRepository> remoteRepositories) {
         this(validatedRepository, validatedDistribution, remoteRepositories, null);
@@ -31,6 +36,21 @@ public class ValidatorContext {
         this.validatedDistribution = validatedDistribution; 
         this.remoteRepositories = remoteRepositories;
         this.exceptionFilters = exceptionFilters;
+        this.errors = new ValidationErrorSink();
+        this.ignoredErrors = new ValidationErrorSink();
+    }
+
+    /**
+     * Creates view of given context, which sees only given inventory, but shares errors with it.
+     */
+    ValidatorContext(ValidatorContext ctx, RepositoryInventory repositoryInventory) {
+        this.validatedRepository = ctx.validatedRepository;
+        this.validatedDistribution = ctx.validatedDistribution;
+        this.remoteRepositories = ctx.remoteRepositories;
+        this.exceptionFilters = ctx.exceptionFilters;
+        this.errors = ctx.errors;
+        this.ignoredErrors = ctx.ignoredErrors;
+        this.repositoryInventory = repositoryInventory;
     }
 
     public File getValidatedRepository() {
@@ -45,6 +65,25 @@ public class ValidatorContext {
         return remoteRepositories;
     }
 
+    public synchronized RepositoryInventory getRepositoryInventory() {
+        if (repositoryInventory == null) {
+            repositoryInventory = RepositoryInventory.scan(validatedRepository);
+        }
+        return repositoryInventory;
+    }
+
+    public synchronized void resetRepositoryInventory() {
+        repositoryInventory = null;
+    }
+
+    /**
+     * Errors are reported ordered by given validators, regardless of order in which validators finished.
+     */
+    void setValidatorOrder(List<? extends Validator> validators) {
+        errors.setValidatorOrder(validators);
+        ignoredErrors.setValidatorOrder(validators);
+    }
+
     public boolean isSuccess() {
         return errors.isEmpty();
     }
@@ -71,47 +110,63 @@ public class ValidatorContext {
     }
 
     public List<ValidationError> getErrors() {
-        return Collections.unmodifiableList(errors);
+        return Collections.unmodifiableList(errors.getErrors());
     }
 
     public List<ValidationError> getErrors(File pomFile) {
+        return Collections.unmodifiableList(errors.getErrors(pomFile));
+    }
+
+    public List<ValidationError> getErrors(Validator validator) {
+        return Collections.unmodifiableList(errors.getErrors(validator));
+    }
+
+    /**
+     * Returns errors of given file reported by validators, which given validator depends on, see {@link ValidatorExecution#dependsOn()}.
+     * Other validators may still run concurrently, so only these errors are complete when given validator starts.
+     */
+    public List<ValidationError> getDependencyErrors(Validator validator, File file) {
+        ValidatorExecution execution = AnnotationUtils.findAnnotation(validator.getClass(), ValidatorExecution.class);
         List<ValidationError> result = new ArrayList<ValidationError>();
-        for(ValidationError error : errors) {
-            if( pomFile.equals(error.getFile()) ) {
-                result.add(error);
+        if (execution != null) {
+            for (ValidationError error : errors.getErrors(file)) {
+                for (Class<? extends Validator> dependencyType : execution.dependsOn()) {
+                    if (dependencyType.isInstance(error.getValidator())) {
+                        result.add(error);
+                        break;
+                    }
+                }
             }
         }
         return Collections.unmodifiableList(result);
     }
     
     public List<Exception> getExceptions() {
-        List<Exception> result = new ArrayList<Exception>();
-        for (ValidationError error : errors) {
-            result.add(error.getException());
-        }
-        return Collections.unmodifiableList(result);
+        return toExceptions(getErrors());
     }
 
     public <E extends Exception> List<E> getExceptions(Class<E> exceptionType) {
         List<E> result = new ArrayList<E>();
-        for (Exception exception : getExceptions()) {
-            if (exceptionType.isInstance(exception)) {
-                result.add(exceptionType.cast(exception));
-            }
+        for (ValidationError error : errors.getErrors(exceptionType)) {
+            result.add(exceptionType.cast(error.getException()));
         }
         return Collections.unmodifiableList(result);
     }
     
     public List<ValidationError> getIgnoredErrors() {
-        return Collections.unmodifiableList(ignoredErrors);
+        return Collections.unmodifiableList(ignoredErrors.getErrors());
     }
     
     public List<Exception> getIgnoredExceptions() {
-        List<Exception> result = new ArrayList<Exception>();
-        for (ValidationError ignoredError : ignoredErrors) {
-            result.add(ignoredError.getException());
+        return toExceptions(getIgnoredErrors());
+    }
+
+    private static List<Exception> toExceptions(List<ValidationError> errors) {
+        List<Exception> result = new ArrayList<Exception>(errors.size());
+        for (ValidationError error : errors) {
+            result.add(error.getException());
         }
         return Collections.unmodifiableList(result);
     }
     
-}
\ No newline at end of file
+}
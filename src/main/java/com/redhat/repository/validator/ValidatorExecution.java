@@ -0,0 +1,33 @@
+package com.redhat.repository.validator;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes how {@link ValidationExecutor} may schedule the validator. 
+ * Validator starts after all validators of types listed in <code>dependsOn</code> are finished, 
+ * validators without this annotation have no dependencies and are considered as CPU bound.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ValidatorExecution {
+
+    Class<? extends Validator>[] dependsOn() default {};
+
+    ValidatorResource resource() default ValidatorResource.CPU;
+
+    /**
+     * Validator reports findings only for files of the GAV directory it inspects (or the directory itself), 
+     * and those findings depend only on that directory and on poms it inherits from or imports. 
+     * In incremental mode such validator inspects only changed directories, findings for others are carried over.
+     * Other validators always inspect the whole repository, their results and effective models are not kept between runs.
+     */
+    boolean incremental() default false;
+
+}
@@ -0,0 +1,23 @@
+package com.redhat.repository.validator;
+
+/**
+ * Resource which bounds the validator, {@link ValidationExecutor} limits how many validators 
+ * of the same resource class run at once.
+ */
+public enum ValidatorResource {
+
+    CPU(Runtime.getRuntime().availableProcessors()),
+    DISK(2),
+    NETWORK(4);
+
+    private final int defaultLimit;
+
+    private ValidatorResource(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+}
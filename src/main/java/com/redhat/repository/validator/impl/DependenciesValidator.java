@@ -9,7 +9,11 @@ import static org.apache.commons.lang3.StringUtils.substringBeforeLast;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,14 +41,21 @@ import org.eclipse.aether.util.artifact.JavaScopes;
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.internal.ParallelFileTask;
+import com.redhat.repository.validator.internal.SessionCache;
+import com.redhat.repository.validator.internal.ValidatedRepositoryWorkspaceReader;
 import com.redhat.repository.validator.internal.Utils;
 
 @Named
 @Order(100)
+@ValidatorExecution(resource = ValidatorResource.NETWORK)
 public class DependenciesValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(DependenciesValidator.class);
@@ -57,29 +68,59 @@ public class DependenciesValidator implements Validator {
     private RepositorySystem repositorySystem;
     @Inject
     private RepositorySystemSession repositorySystemSession;
-
+    @Value("#{systemProperties['redhat-repository-validator-dependenciesThreads']?:0}")
+    private int dependenciesThreads;
+
+    /**
+     * POMs are resolved concurrently with shared session, errors of each POM are collected 
+     * and registered in order of POM files, so the report is the same as after sequential run.
+     * Unexpected exception is rethrown after errors of preceding POMs, like in sequential run.
+     */
     @Override
-    public void validate(ValidatorContext ctx) {
-        Collection<File> pomFiles = listPomFiles(ctx.getValidatedRepository(), fileFilter);
+    public void validate(final ValidatorContext ctx) {
+        SessionCache.startRun(repositorySystemSession, ctx);
+        ValidatedRepositoryWorkspaceReader.startRun(repositorySystemSession, ctx);
+        Collection<File> pomFiles = listPomFiles(ctx, fileFilter);
+        final Map<File, List<Exception>> pomErrors = new ConcurrentHashMap<File, List<Exception>>();
+        final Map<File, RuntimeException> pomFailures = new ConcurrentHashMap<File, RuntimeException>();
+        new ParallelFileTask("dependencies-%d") {
+            @Override
+            protected void process(File pomFile) {
+                logger.trace("validating {}", relativize(ctx, pomFile));
+                List<Exception> errors = new ArrayList<Exception>();
+                try {
+                    validate(ctx, pomFile, errors);
+                } catch (RuntimeException e) {
+                    pomFailures.put(pomFile, e);
+                }
+                pomErrors.put(pomFile, errors);
+            }
+        }.execute(pomFiles, dependenciesThreads);
+        logger.debug("session cache {}", repositorySystemSession.getCache());
+
         for (File pomFile : pomFiles) {
-            logger.trace("validating {}", relativize(ctx, pomFile));
-            validate(ctx, pomFile);
+            for (Exception e : pomErrors.get(pomFile)) {
+                ctx.addError(this, pomFile, e);
+            }
+            if (pomFailures.containsKey(pomFile)) {
+                throw pomFailures.get(pomFile);
+            }
         }
     }
 
-    private void validate(ValidatorContext ctx, File pomFile) {
+    private void validate(ValidatorContext ctx, File pomFile, List<Exception> errors) {
         Artifact pomArtifact = parsePomArtifact(ctx.getValidatedRepository(), pomFile);
-        Model pomModel = parsePomModel(ctx, pomFile);
+        Model pomModel = parsePomModel(pomFile, errors);
         if (pomModel == null) {
             return;
         }
-        if (!resolvePom(ctx, pomFile, pomArtifact)) {
+        if (!resolvePom(ctx, pomArtifact, errors)) {
             return;
         }
-        if (!resolveArchive(ctx, pomFile, pomArtifact, pomModel)) {
+        if (!resolveArchive(ctx, pomFile, pomArtifact, pomModel, errors)) {
             return;
         }
-        if (!resolveDependencies(ctx, pomFile, pomArtifact)) {
+        if (!resolveDependencies(ctx, pomArtifact, errors)) {
             return;
         }
     }
@@ -100,36 +141,36 @@ public class DependenciesValidator implements Validator {
         return new DefaultArtifact(groupId, artifactId, "pom", version);
     }
 
-    private Model parsePomModel(ValidatorContext ctx, File pomFile) {
+    private Model parsePomModel(File pomFile, List<Exception> errors) {
         try {
             return modelReader.read(pomFile, null);
         } catch (IOException e) {
-            ctx.addError(this, pomFile, e);
+            errors.add(e);
             return null;
         }
     }
 
-    private boolean resolvePom(ValidatorContext ctx, File pomFile, Artifact pomArtifact) {
+    private boolean resolvePom(ValidatorContext ctx, Artifact pomArtifact, List<Exception> errors) {
         ArtifactRequest pomRequest = new ArtifactRequest();
         pomRequest.setArtifact(pomArtifact);
         pomRequest.setRepositories(ctx.getRemoteRepositories());
         try {
             repositorySystem.resolveArtifact(repositorySystemSession, pomRequest);
         } catch (ArtifactResolutionException e) {
-            collectAndReportMissingArtifacts(ctx, e, pomFile, pomArtifact, new DefaultDependencyNode(pomArtifact));
+            collectMissingArtifacts(e, pomArtifact, new DefaultDependencyNode(pomArtifact), errors);
             return false;
         }
         return true;
     }
 
-    private boolean resolveArchive(ValidatorContext ctx, File pomFile, Artifact pomArtifact, Model model) {
+    private boolean resolveArchive(ValidatorContext ctx, File pomFile, Artifact pomArtifact, Model model, List<Exception> errors) {
         if (!model.getPackaging().equals("pom")) {
 
             ArtifactTypeRegistry artifactTypeRegistry = repositorySystemSession.getArtifactTypeRegistry();
             ArtifactType artifactType = artifactTypeRegistry.get(model.getPackaging());
             
             if (artifactType == null) {
-                ctx.addError(this, pomFile, new UnknownArtifactTypeException(model.getPackaging(), relativize(ctx, pomFile)));
+                errors.add(new UnknownArtifactTypeException(model.getPackaging(), relativize(ctx, pomFile)));
                 return false;
             }
 
@@ -147,14 +188,14 @@ public class DependenciesValidator implements Validator {
             try {
                 repositorySystem.resolveArtifact(repositorySystemSession, archiveRequest);
             } catch (ArtifactResolutionException e) {
-                collectAndReportMissingArtifacts(ctx, e, pomFile, pomArtifact, new DefaultDependencyNode(pomArtifact));
+                collectMissingArtifacts(e, pomArtifact, new DefaultDependencyNode(pomArtifact), errors);
                 return false;
             }
         }
         return true;
     }
 
-    private boolean resolveDependencies(ValidatorContext ctx, File pomFile, Artifact pomArtifact) {
+    private boolean resolveDependencies(ValidatorContext ctx, Artifact pomArtifact, List<Exception> errors) {
         CollectRequest collectRequest = new CollectRequest();
         collectRequest.setRoot(new Dependency(pomArtifact, JavaScopes.COMPILE));
         collectRequest.setRepositories(ctx.getRemoteRepositories());
@@ -166,7 +207,7 @@ public class DependenciesValidator implements Validator {
             repositorySystem.collectDependencies(repositorySystemSession, collectRequest);
         } catch (DependencyCollectionException e) {
             DependencyNode rootDepNode = new DefaultDependencyNode(e.getResult().getRequest().getRoot());
-            collectAndReportMissingArtifacts(ctx, e, pomFile, pomArtifact, rootDepNode);
+            collectMissingArtifacts(e, pomArtifact, rootDepNode, errors);
             return false;
         }
 
@@ -174,15 +215,14 @@ public class DependenciesValidator implements Validator {
             repositorySystem.resolveDependencies(repositorySystemSession, dependencyRequest);
         } catch (DependencyResolutionException e) {
             DependencyNode rootDepNode = e.getResult().getRoot();
-            collectAndReportMissingArtifacts(ctx, e, pomFile, pomArtifact, rootDepNode);
+            collectMissingArtifacts(e, pomArtifact, rootDepNode, errors);
             return false;
         }
 
         return true;
     }
 
-    private void collectAndReportMissingArtifacts(ValidatorContext ctx, Exception e, File pomFile,
-                                                  Artifact validatedArtifact, DependencyNode rootDepNode) {
+    private void collectMissingArtifacts(Exception e, Artifact validatedArtifact, DependencyNode rootDepNode, List<Exception> errors) {
         ArtifactResolutionException are;
         if (e instanceof ArtifactResolutionException) {
             are = (ArtifactResolutionException) e;
@@ -191,10 +231,10 @@ public class DependenciesValidator implements Validator {
         }
         
         if( are == null ) {
-            ctx.addError(this, pomFile, e);
+            errors.add(e);
         } else {
             for (Artifact missingArtifact : Utils.collectMissingArtifacts(are)) {
-                ctx.addError(this, pomFile, new DependencyNotFoundException(are, missingArtifact, validatedArtifact, rootDepNode));
+                errors.add(new DependencyNotFoundException(are, missingArtifact, validatedArtifact, rootDepNode));
             }
         }
     }
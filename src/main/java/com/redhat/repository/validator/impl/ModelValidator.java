@@ -10,9 +10,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.maven.model.building.DefaultModelBuildingRequest;
-import org.apache.maven.model.building.FileModelSource;
-import org.apache.maven.model.building.ModelBuilder;
 import org.apache.maven.model.building.ModelBuildingException;
 import org.apache.maven.model.building.ModelBuildingRequest;
 import org.slf4j.Logger;
@@ -21,9 +18,12 @@ import org.springframework.core.annotation.Order;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
 @Order(200)
+@ValidatorExecution(dependsOn = DependenciesValidator.class)
 public class ModelValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(ModelValidator.class);
@@ -31,16 +31,14 @@ public class ModelValidator implements Validator {
     @Inject @Named("modelValidatorFilter")
     private IOFileFilter fileFilter;
     @Inject
-    private ModelBuilder modelBuilder;
-    @Inject
-    private ModelBuildingRequest modelBuildingRequestTemplate;
+    private ValidatorSupport validatorSupport;
 
     @Override
     public void validate(ValidatorContext ctx) {
-        Collection<File> pomFiles = listPomFiles(ctx.getValidatedRepository(), fileFilter);
+        Collection<File> pomFiles = listPomFiles(ctx, fileFilter);
         for (File pomFile : pomFiles) {
             logger.trace("validating {}", relativize(ctx, pomFile));
-            if (!ctx.getErrors(pomFile).isEmpty()) {
+            if (!ctx.getDependencyErrors(this, pomFile).isEmpty()) {
                 logger.debug("skipping `{}`, because already contains exceptions", relativize(ctx, pomFile));
                 continue;
             }
@@ -49,12 +47,8 @@ public class ModelValidator implements Validator {
     }
 
     private void validate(ValidatorContext ctx, File pomFile) {
-        DefaultModelBuildingRequest request = new DefaultModelBuildingRequest(modelBuildingRequestTemplate);
-        request.setPomFile(pomFile);
-        request.setModelSource(new FileModelSource(pomFile));
-        request.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MAVEN_3_0);
         try {
-            modelBuilder.build(request);
+            validatorSupport.buildModel(ctx, pomFile, ModelBuildingRequest.VALIDATION_LEVEL_MAVEN_3_0);
         } catch (ModelBuildingException e) {
             ctx.addError(this, pomFile, e);
         }
@@ -19,10 +19,13 @@ import org.slf4j.LoggerFactory;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.DependenciesValidator;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 // https://docs.sonatype.org/display/Repository/Central+Sync+Requirements
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class, incremental = true)
 public class BestPracticesValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(BestPracticesValidator.class);
@@ -21,9 +21,12 @@ import org.apache.maven.model.Model;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.DependenciesValidator;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class)
 public class BomAmbiguousVersionValidator implements Validator {
 
     @Inject @Named("bomAmbiguousVersionValidatorFilter")
@@ -3,19 +3,27 @@ package com.redhat.repository.validator.impl.bom;
 import static com.redhat.repository.validator.internal.Utils.findCause;
 import static com.redhat.repository.validator.internal.Utils.relativize;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.maven.model.Model;
+import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.DefaultDependencyNode;
 import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
@@ -23,15 +31,23 @@ import org.eclipse.aether.resolution.DependencyRequest;
 import org.eclipse.aether.resolution.DependencyResolutionException;
 import org.eclipse.aether.util.artifact.JavaScopes;
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.impl.DependenciesValidator;
+import com.redhat.repository.validator.internal.SessionCache;
 import com.redhat.repository.validator.internal.Utils;
+import com.redhat.repository.validator.internal.ValidatedRepositoryWorkspaceReader;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class, resource = ValidatorResource.NETWORK)
 public class BomDependencyNotFoundValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(BomDependencyNotFoundValidator.class);
@@ -46,9 +62,13 @@ public class BomDependencyNotFoundValidator implements Validator {
     private ValidatorSupport validatorSupport;
     @Inject
     private BomFilter bomFilter;
+    @Value("#{systemProperties['redhat-repository-validator-bomBatchedResolution']?:false}")
+    private boolean batchedResolution;
 
     @Override
     public void validate(ValidatorContext ctx) {
+        SessionCache.startRun(repositorySystemSession, ctx);
+        ValidatedRepositoryWorkspaceReader.startRun(repositorySystemSession, ctx);
         Iterator<Model> modelIterator = validatorSupport.effectiveModelIterator(ctx, fileFilter);
         while (modelIterator.hasNext()) {
             Model model = modelIterator.next();
@@ -64,8 +84,115 @@ public class BomDependencyNotFoundValidator implements Validator {
     private void validateBomDependencies(ValidatorContext ctx, Model bom) {
         Artifact bomArtifact = new DefaultArtifact(bom.getGroupId(), bom.getArtifactId(), bom.getPackaging(), bom.getVersion());
         Dependency bomDependency = new Dependency(bomArtifact, JavaScopes.COMPILE);
-        for (org.apache.maven.model.Dependency dependency : bom.getDependencyManagement().getDependencies()) {
-            validateBomDependency(ctx, bom, bomDependency, validatorSupport.convert(dependency));
+        if (batchedResolution) {
+            List<Dependency> dependencies = new ArrayList<Dependency>();
+            for (org.apache.maven.model.Dependency dependency : bom.getDependencyManagement().getDependencies()) {
+                dependencies.add(validatorSupport.convert(dependency));
+            }
+            validateBomDependencies(ctx, bom, bomDependency, dependencies);
+        } else {
+            for (org.apache.maven.model.Dependency dependency : bom.getDependencyManagement().getDependencies()) {
+                validateBomDependency(ctx, bom, bomDependency, validatorSupport.convert(dependency));
+            }
+        }
+    }
+
+    /**
+     * Collects and resolves all managed dependencies of BOM in one graph, so shared subtrees are resolved only once.
+     * Conflict resolution runs in verbose mode, losing nodes stay in graph and their versions are resolved too,
+     * missing artifact is attributed to each managed dependency, from which it is reachable.
+     * Subtree of losing node is substituted by subtree of its winner, which is equal only if both have same version.
+     * Managed dependency, which reaches losing node of other version, is therefore resolved once more alone, 
+     * like in non-batched mode, so artifacts missing only under the losing version are found too.
+     */
+    private void validateBomDependencies(ValidatorContext ctx, Model bom, Dependency bomDependency, List<Dependency> dependencies) {
+        CollectRequest collectRequest = new CollectRequest(
+                bomDependency,
+                dependencies,
+                ctx.getRemoteRepositories());
+
+        DependencyRequest dependencyRequest = new DependencyRequest(
+                collectRequest,
+                DependencyFilterUtils.classpathFilter(JavaScopes.COMPILE));
+
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(repositorySystemSession);
+        session.setConfigProperty(ConflictResolver.CONFIG_PROP_VERBOSE, true);
+
+        DependencyNode root;
+        DependencyResolutionException exception = null;
+        Set<Artifact> missingArtifacts = Collections.emptySet();
+        try {
+            root = repositorySystem.resolveDependencies(session, dependencyRequest).getRoot();
+        } catch (DependencyResolutionException e) {
+            ArtifactResolutionException are = findCause(e, ArtifactResolutionException.class);
+            if (are == null) {
+                ctx.addError(this, bom.getPomFile(), e);
+                return;
+            }
+            root = e.getResult().getRoot();
+            exception = e;
+            missingArtifacts = new LinkedHashSet<Artifact>(Utils.collectMissingArtifacts(are));
+        }
+
+        Artifact validatedArtifact = bomDependency.getArtifact();
+        for (DependencyNode child : root.getChildren()) {
+            if (reachesLosingVersion(child, Collections.newSetFromMap(new IdentityHashMap<DependencyNode, Boolean>()))) {
+                logger.trace("resolving {} alone, it depends on losing version of conflicting dependency", child.getArtifact());
+                validateBomDependency(ctx, bom, bomDependency, child.getDependency());
+                continue;
+            }
+            if (missingArtifacts.isEmpty()) {
+                continue;
+            }
+            Set<Artifact> reachableArtifacts = new HashSet<Artifact>();
+            collectReachableArtifacts(child, reachableArtifacts, Collections.newSetFromMap(new IdentityHashMap<DependencyNode, Boolean>()));
+            DefaultDependencyNode dependencyNode = null;
+            for (Artifact missingArtifact : missingArtifacts) {
+                if (reachableArtifacts.contains(missingArtifact)) {
+                    if (dependencyNode == null) {
+                        dependencyNode = new DefaultDependencyNode(root);
+                        dependencyNode.setChildren(Collections.singletonList(child));
+                    }
+                    ctx.addError(this, bom.getPomFile(), new BomDependencyNotFoundException(exception, missingArtifact, validatedArtifact, dependencyNode));
+                }
+            }
+        }
+    }
+
+    private boolean reachesLosingVersion(DependencyNode node, Set<DependencyNode> visited) {
+        if (!visited.add(node)) {
+            return false;
+        }
+        DependencyNode winner = (DependencyNode) node.getData().get(ConflictResolver.NODE_DATA_WINNER);
+        if (winner != null) {
+            if (!winner.getArtifact().getVersion().equals(node.getArtifact().getVersion())) {
+                return true;
+            }
+            if (reachesLosingVersion(winner, visited)) {
+                return true;
+            }
+        }
+        for (DependencyNode child : node.getChildren()) {
+            if (reachesLosingVersion(child, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectReachableArtifacts(DependencyNode node, Set<Artifact> artifacts, Set<DependencyNode> visited) {
+        if (!visited.add(node)) {
+            return;
+        }
+        if (node.getArtifact() != null) {
+            artifacts.add(node.getArtifact());
+        }
+        DependencyNode winner = (DependencyNode) node.getData().get(ConflictResolver.NODE_DATA_WINNER);
+        if (winner != null) {
+            collectReachableArtifacts(winner, artifacts, visited);
+        }
+        for (DependencyNode child : node.getChildren()) {
+            collectReachableArtifacts(child, artifacts, visited);
         }
     }
 
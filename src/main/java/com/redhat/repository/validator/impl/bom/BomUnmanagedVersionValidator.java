@@ -22,9 +22,13 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.DependenciesValidator;
+import com.redhat.repository.validator.impl.ModelValidator;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = { DependenciesValidator.class, ModelValidator.class })
 public class BomUnmanagedVersionValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(BomUnmanagedVersionValidator.class);
@@ -46,14 +50,14 @@ public class BomUnmanagedVersionValidator implements Validator {
     }
 
     private void collectData(ValidatorContext ctx, Map<String, File> projectGavToFileMap, ListMultimap<String, String> dependencyGavToBomGavMap) {
-        Collection<File> pomFiles = listPomFiles(ctx.getValidatedRepository(), fileFilter);
+        Collection<File> pomFiles = listPomFiles(ctx, fileFilter);
         for (File pomFile : pomFiles) {
-            if (!ctx.getErrors(pomFile).isEmpty()) {
+            if (!ctx.getDependencyErrors(this, pomFile).isEmpty()) {
                 logger.debug("skipping `{}`, because already contains exceptions", pomFile);
                 continue;
             }
 
-            Model model = validatorSupport.buildModel(pomFile).getEffectiveModel();
+            Model model = validatorSupport.buildModel(ctx, pomFile).getEffectiveModel();
             if (model.getPackaging().equals("pom")) {
                 if (bomFilter.isBom(model)) {
                     String bomGav = gav(model);
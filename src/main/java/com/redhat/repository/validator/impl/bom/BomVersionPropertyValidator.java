@@ -20,9 +20,13 @@ import org.slf4j.LoggerFactory;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.DependenciesValidator;
+import com.redhat.repository.validator.impl.ModelValidator;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = { DependenciesValidator.class, ModelValidator.class })
 public class BomVersionPropertyValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(BomVersionPropertyValidator.class);
@@ -36,14 +40,14 @@ public class BomVersionPropertyValidator implements Validator {
 
     @Override
     public void validate(ValidatorContext ctx) {
-        Collection<File> pomFiles = listPomFiles(ctx.getValidatedRepository(), fileFilter);
+        Collection<File> pomFiles = listPomFiles(ctx, fileFilter);
         for (File pomFile : pomFiles) {
-            if (!ctx.getErrors(pomFile).isEmpty()) {
+            if (!ctx.getDependencyErrors(this, pomFile).isEmpty()) {
                 logger.debug("skipping `{}`, because already contains exceptions", pomFile);
                 continue;
             }
             
-            ModelBuildingResult result = validatorSupport.buildModel(pomFile);
+            ModelBuildingResult result = validatorSupport.buildModel(ctx, pomFile);
             Model rawModel = result.getRawModel();
             Model effectiveModel = result.getEffectiveModel();
             if (bomFilter.isBom(effectiveModel)) {
@@ -1,17 +1,16 @@
 package com.redhat.repository.validator.impl.checksum;
 
 import static com.redhat.repository.validator.internal.Utils.relativize;
-import static org.apache.commons.io.FileUtils.listFiles;
 import static org.apache.commons.io.filefilter.FileFilterUtils.and;
 import static org.apache.commons.io.filefilter.FileFilterUtils.notFileFilter;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -23,44 +22,75 @@ import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.eclipse.aether.util.ChecksumUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.internal.FileDigests;
+import com.redhat.repository.validator.internal.ParallelFileTask;
 
 @Named
+@ValidatorExecution(resource = ValidatorResource.DISK, incremental = true)
 public class ChecksumValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(ChecksumValidator.class);
 
-    private static final Map<String, String> checksumAlgorithms = new HashMap<String, String>();
+    private static final Map<String, String> checksumAlgorithms = new LinkedHashMap<String, String>();
     static {
         checksumAlgorithms.put("MD5", ".md5");
         checksumAlgorithms.put("SHA-1", ".sha1");
     }
 
+    /**
+     * Stronger checksums are optional, they are verified only if their checksum file is present.
+     */
+    private static final Map<String, String> optionalChecksumAlgorithms = new LinkedHashMap<String, String>();
+    static {
+        optionalChecksumAlgorithms.put("SHA-256", ".sha256");
+        optionalChecksumAlgorithms.put("SHA-512", ".sha512");
+    }
+
     @Inject @Named("checksumValidatorFilter")
     private IOFileFilter fileFilter;
+    @Inject
+    private FileDigests fileDigests;
+
+    @Value("#{systemProperties['redhat-repository-validator-checksumThreads']?:0}")
+    private int checksumThreads;
 
     @Override
-    public void validate(ValidatorContext ctx) {
+    public void validate(final ValidatorContext ctx) {
         Collection<File> files = findFiles(ctx);
-        for (File file : files) {
-            logger.trace("validating {}", relativize(ctx, file));
-            validateChecksum(ctx, file);
-        }
+        new ParallelFileTask("checksum-%d") {
+            @Override
+            protected void process(File file) {
+                logger.trace("validating {}", relativize(ctx, file));
+                validateChecksum(ctx, file);
+            }
+        }.execute(files, checksumThreads);
     }
 
     private void validateChecksum(ValidatorContext ctx, File file) {
-        Map<String, Object> checksums;
+        Map<String, String> algorithms = new LinkedHashMap<String, String>(checksumAlgorithms);
+        for (Entry<String, String> checksumAlgorithm : optionalChecksumAlgorithms.entrySet()) {
+            if (ctx.getRepositoryInventory().isFile(new File(file.getPath() + checksumAlgorithm.getValue()))) {
+                algorithms.put(checksumAlgorithm.getKey(), checksumAlgorithm.getValue());
+            }
+        }
+
+        Map<String, String> checksums;
         try {
-            checksums = ChecksumUtils.calc(file, checksumAlgorithms.keySet());
+            checksums = fileDigests.digest(file, algorithms.keySet());
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            ctx.addError(this, file, new ChecksumVerificationException(relativize(ctx, file), e));
+            return;
         }
 
-        for (Entry<String, String> checksumAlgorithm : checksumAlgorithms.entrySet()) {
+        for (Entry<String, String> checksumAlgorithm : algorithms.entrySet()) {
             try {
-                String checksum1 = checksums.get(checksumAlgorithm.getKey()).toString();
+                String checksum1 = checksums.get(checksumAlgorithm.getKey());
                 String checksum2 = ChecksumUtils.read(new File(file.getPath() + checksumAlgorithm.getValue()));
                 if (!equalsIgnoreCase(checksum1, checksum2)) {
                     ctx.addError(this, file, new ChecksumNotMatchException(relativize(ctx, file), checksumAlgorithm.getKey(), checksum1, checksum2));
@@ -72,8 +102,10 @@ public class ChecksumValidator implements Validator {
     }
 
     private Collection<File> findFiles(ValidatorContext ctx) {
-        IOFileFilter filterChecksumFiles = notFileFilter(new SuffixFileFilter(new ArrayList<String>(checksumAlgorithms.values())));
-        Collection<File> files = listFiles(ctx.getValidatedRepository(), and(fileFilter, filterChecksumFiles), trueFileFilter());
+        List<String> checksumSuffixes = new ArrayList<String>(checksumAlgorithms.values());
+        checksumSuffixes.addAll(optionalChecksumAlgorithms.values());
+        IOFileFilter filterChecksumFiles = notFileFilter(new SuffixFileFilter(checksumSuffixes));
+        Collection<File> files = ctx.getRepositoryInventory().listFiles(and(fileFilter, filterChecksumFiles));
         return files;
     }
 
@@ -0,0 +1,20 @@
+package com.redhat.repository.validator.impl.checksum;
+
+import java.io.File;
+
+public class ChecksumVerificationException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File file;
+
+    public ChecksumVerificationException(File file, Throwable cause) {
+        super("Unable to calculate checksums of file " + file + ", because " + cause.getMessage(), cause);
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.redhat.repository.validator.impl.distribution;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.aether.util.ChecksumUtils;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.redhat.repository.validator.internal.FileDigests;
+
+/**
+ * Assigns each file a key, which is equal for files with equal content. 
+ * Files are grouped by size first, then files with colliding size by hash of their first and last 64 KiB, 
+ * and full digest is calculated only for files, which still collide.
+ * Files which can't be read get no key, their failures are available from {@link #getFailures()}.
+ */
+class ContentFingerprints {
+
+    private static final int PARTIAL_SIZE = 64 * 1024;
+
+    private final String algorithm;
+    private final ExecutorService executorService;
+    private final FileDigests fileDigests;
+    private final Map<File, IOException> failures = new HashMap<File, IOException>();
+
+    ContentFingerprints(String algorithm, ExecutorService executorService, FileDigests fileDigests) {
+        this.algorithm = algorithm;
+        this.executorService = executorService;
+        this.fileDigests = fileDigests;
+    }
+
+    Map<File, IOException> getFailures() {
+        return failures;
+    }
+
+    Map<File, String> calculate(Collection<File> files) {
+        return calculate(files, Collections.<File, DigestedContent> emptyMap());
+    }
+
+    /**
+     * Files with already known digest, like entries of distribution archive, are never read, 
+     * other files of same size are fully hashed to be comparable with them.
+     */
+    Map<File, String> calculate(Collection<File> files, Map<File, DigestedContent> digestedFiles) {
+        Map<File, String> fingerprints = new HashMap<File, String>();
+
+        ListMultimap<Long, File> filesBySize = ArrayListMultimap.create();
+        for (File file : files) {
+            DigestedContent digestedContent = digestedFiles.get(file);
+            filesBySize.put(digestedContent != null ? digestedContent.size : file.length(), file);
+        }
+
+        List<File> partialHashCandidates = new ArrayList<File>();
+        List<File> fullHashCandidates = new ArrayList<File>();
+        for (Map.Entry<Long, Collection<File>> sizeEntry : filesBySize.asMap().entrySet()) {
+            Collection<File> sameSizeFiles = sizeEntry.getValue();
+            if (sameSizeFiles.size() == 1) {
+                File file = sameSizeFiles.iterator().next();
+                fingerprints.put(file, "size:" + sizeEntry.getKey() + ":" + file.getAbsolutePath());
+            } else if (sizeEntry.getKey() <= 2 * PARTIAL_SIZE || !Collections.disjoint(sameSizeFiles, digestedFiles.keySet())) {
+                fullHashCandidates.addAll(sameSizeFiles);
+            } else {
+                partialHashCandidates.addAll(sameSizeFiles);
+            }
+        }
+
+        Map<File, String> partialHashes = invokeAll(partialHashCandidates, new Hasher() {
+            @Override
+            public String hash(File file) throws IOException {
+                return partialHash(file);
+            }
+        });
+        ListMultimap<String, File> filesByPartialHash = ArrayListMultimap.create();
+        for (File file : partialHashCandidates) {
+            if (partialHashes.containsKey(file)) {
+                filesByPartialHash.put(file.length() + ":" + partialHashes.get(file), file);
+            }
+        }
+        for (Map.Entry<String, Collection<File>> partialHashEntry : filesByPartialHash.asMap().entrySet()) {
+            Collection<File> samePartialHashFiles = partialHashEntry.getValue();
+            if (samePartialHashFiles.size() == 1) {
+                File file = samePartialHashFiles.iterator().next();
+                fingerprints.put(file, "partial:" + partialHashEntry.getKey() + ":" + file.getAbsolutePath());
+            } else {
+                fullHashCandidates.addAll(samePartialHashFiles);
+            }
+        }
+
+        for (File file : fullHashCandidates) {
+            DigestedContent digestedContent = digestedFiles.get(file);
+            if (digestedContent != null) {
+                fingerprints.put(file, digestedContent.digest);
+            }
+        }
+        fullHashCandidates.removeAll(digestedFiles.keySet());
+
+        fingerprints.putAll(invokeAll(fullHashCandidates, new Hasher() {
+            @Override
+            public String hash(File file) throws IOException {
+                return fileDigests.digest(file, algorithm);
+            }
+        }));
+
+        return fingerprints;
+    }
+
+    private Map<File, String> invokeAll(List<File> files, final Hasher hasher) {
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>(files.size());
+        for (final File file : files) {
+            tasks.add(new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    return hasher.hash(file);
+                }
+            });
+        }
+
+        Map<File, String> result = new HashMap<File, String>();
+        try {
+            List<Future<String>> futures = executorService.invokeAll(tasks);
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    result.put(files.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof IOException)) {
+                        throw new RuntimeException(e.getCause());
+                    }
+                    failures.put(files.get(i), (IOException) e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    private String partialHash(File file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(PARTIAL_SIZE);
+            read(channel, buffer, 0);
+            messageDigest.update(buffer);
+            buffer.clear();
+            read(channel, buffer, Math.max(0, size - PARTIAL_SIZE));
+            messageDigest.update(buffer);
+        } finally {
+            IOUtils.closeQuietly(channel);
+        }
+        return ChecksumUtils.toHexString(messageDigest.digest());
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read == -1) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    static class DigestedContent {
+
+        final long size;
+        final String digest;
+
+        DigestedContent(long size, String digest) {
+            this.size = size;
+            this.digest = digest;
+        }
+
+    }
+
+    private interface Hasher {
+
+        String hash(File file) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.redhat.repository.validator.impl.distribution;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.eclipse.aether.util.ChecksumUtils;
+
+import com.redhat.repository.validator.impl.distribution.ContentFingerprints.DigestedContent;
+
+/**
+ * Distribution packed in zip archive, its entries are digested in one streaming pass, without unpacking them to disk.
+ * Entries are represented by files below the archive path, entries of nested zip archives below path of the nested archive,
+ * e.g. <code>dist.zip/lib/foo.jar</code> or <code>dist.zip/modules.zip/bar.jar</code>.
+ */
+class DistributionArchive {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File archive;
+    private final String algorithm;
+    private final IOFileFilter fileFilter;
+    private final Map<File, DigestedContent> entries = new LinkedHashMap<File, DigestedContent>();
+
+    private DistributionArchive(File archive, String algorithm, IOFileFilter fileFilter) {
+        this.archive = archive;
+        this.algorithm = algorithm;
+        this.fileFilter = fileFilter;
+    }
+
+    static boolean isArchive(File file) {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        return file.isFile() && (name.endsWith(".zip") || name.endsWith(".jar"));
+    }
+
+    static DistributionArchive read(File archive, String algorithm, IOFileFilter fileFilter) throws IOException {
+        DistributionArchive distributionArchive = new DistributionArchive(archive, algorithm, fileFilter);
+        InputStream in = new BufferedInputStream(new FileInputStream(archive), BUFFER_SIZE);
+        try {
+            distributionArchive.read(in, archive);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return distributionArchive;
+    }
+
+    /**
+     * Returns digested entries, which are accepted by file filter, in order of the archive.
+     */
+    Map<File, DigestedContent> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    File getArchive() {
+        return archive;
+    }
+
+    private void read(InputStream in, File parent) throws IOException {
+        ZipInputStream zipInputStream = new ZipInputStream(new CloseShieldInputStream(in));
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            File file = new File(parent, entry.getName());
+            if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".zip")) {
+                read(zipInputStream, file);
+            } else if (fileFilter.accept(file)) {
+                entries.put(file, digest(zipInputStream));
+            }
+        }
+        zipInputStream.close();
+    }
+
+    private DigestedContent digest(InputStream in) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, read);
+            size += read;
+        }
+        return new DigestedContent(size, ChecksumUtils.toHexString(messageDigest.digest()));
+    }
+
+}
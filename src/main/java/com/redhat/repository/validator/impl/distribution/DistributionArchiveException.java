@@ -0,0 +1,20 @@
+package com.redhat.repository.validator.impl.distribution;
+
+import java.io.File;
+
+public class DistributionArchiveException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File archive;
+
+    public DistributionArchiveException(File archive, Throwable cause) {
+        super("Unable to read distribution archive " + archive + ", because " + cause.getMessage(), cause);
+        this.archive = archive;
+    }
+
+    public File getArchive() {
+        return archive;
+    }
+
+}
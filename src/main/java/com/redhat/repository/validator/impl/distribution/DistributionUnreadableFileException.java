@@ -0,0 +1,20 @@
+package com.redhat.repository.validator.impl.distribution;
+
+import java.io.File;
+
+public class DistributionUnreadableFileException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File file;
+
+    public DistributionUnreadableFileException(File file, Throwable cause) {
+        super("Unable to read file " + file + ", because " + cause.getMessage(), cause);
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+}
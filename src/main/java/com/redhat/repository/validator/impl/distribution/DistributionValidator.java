@@ -3,37 +3,51 @@ package com.redhat.repository.validator.impl.distribution;
 import static com.redhat.repository.validator.internal.Utils.relativize;
 import static com.redhat.repository.validator.internal.Utils.relativizeFile;
 import static com.redhat.repository.validator.internal.Utils.sortFiles;
+import static com.redhat.repository.validator.internal.ValidatorSupport.listPomFiles;
 import static org.apache.commons.io.filefilter.FileFilterUtils.and;
 import static org.apache.commons.io.filefilter.FileFilterUtils.notFileFilter;
 import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.eclipse.aether.repository.LocalRepository;
-import org.eclipse.aether.util.ChecksumUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.impl.DependenciesValidator;
+import com.redhat.repository.validator.impl.distribution.ContentFingerprints.DigestedContent;
+import com.redhat.repository.validator.internal.FileDigests;
+import com.redhat.repository.validator.internal.RepositoryInventory;
+import com.redhat.repository.validator.internal.ResolutionLedger;
 
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class, resource = ValidatorResource.DISK)
 public class DistributionValidator implements Validator {
 
     private static final Logger logger = LoggerFactory.getLogger(DistributionValidator.class);
@@ -44,23 +58,44 @@ public class DistributionValidator implements Validator {
     private IOFileFilter fileFilter;
     @Inject
     private LocalRepository localRepository;
+    @Inject
+    private ResolutionLedger resolutionLedger;
+    @Inject
+    private FileDigests fileDigests;
+
+    @Value("#{systemProperties['redhat-repository-validator-fingerprintThreads']?:0}")
+    private int fingerprintThreads;
 
     @Override
     public void validate(ValidatorContext ctx) {
-        if (!ctx.getValidatedDistribution().isDirectory()) {
-            logger.trace("validation skipped, because distribution directory {} doesn't exists", ctx.getValidatedDistribution());
+        Collection<File> validatedDistFiles;
+        Map<File, DigestedContent> digestedDistFiles;
+        if (ctx.getValidatedDistribution().isDirectory()) {
+            validatedDistFiles = listFiles(RepositoryInventory.scan(ctx.getValidatedDistribution()));
+            digestedDistFiles = Collections.emptyMap();
+        } else if (DistributionArchive.isArchive(ctx.getValidatedDistribution())) {
+            digestedDistFiles = readArchive(ctx, ctx.getValidatedDistribution());
+            if (digestedDistFiles == null) {
+                return;
+            }
+            validatedDistFiles = digestedDistFiles.keySet();
+        } else {
+            logger.trace("validation skipped, because distribution directory or archive {} doesn't exists", ctx.getValidatedDistribution());
             return;
         }
 
-        ListMultimap<String, File> validatedRepoFilesMap = mapFilesToChecksum(ctx.getValidatedRepository());
-        ListMultimap<String, File> validatedDistFilesMap = mapFilesToChecksum(ctx.getValidatedDistribution());
-        ListMultimap<String, File> localRepoFilesMap = mapFilesToChecksum(localRepository.getBasedir());
+        Collection<File> validatedRepoFiles = listFiles(ctx.getRepositoryInventory());
+
+        // files from both trees are fingerprinted together, so only files with colliding size are hashed
+        Map<File, String> fingerprints = calculateFingerprints(ctx, validatedRepoFiles, validatedDistFiles, digestedDistFiles);
+        ListMultimap<String, File> validatedRepoFilesMap = mapFilesToFingerprint(validatedRepoFiles, fingerprints);
+        ListMultimap<String, File> validatedDistFilesMap = mapFilesToFingerprint(validatedDistFiles, fingerprints);
 
         // find files which are in validated repository, but not in distribution
         findMissingFiles(ctx, validatedRepoFilesMap, validatedDistFilesMap);
         
         // find files which are in distribution, but not in validated repository or in local repository, due transitive dependencies
-        findRedundantFiles(ctx, validatedRepoFilesMap, validatedDistFilesMap, localRepoFilesMap);
+        findRedundantFiles(ctx, validatedRepoFilesMap, validatedDistFilesMap, digestedDistFiles);
         
         // find files which are identical, has same content
         findDuplicateFiles(ctx, validatedRepoFilesMap, validatedDistFilesMap);
@@ -81,19 +116,103 @@ public class DistributionValidator implements Validator {
         }
     }
 
-    private void findRedundantFiles(ValidatorContext ctx, ListMultimap<String, File> validatedRepoFilesMap, ListMultimap<String, File> validatedDistFilesMap, ListMultimap<String, File> localRepoFilesMap) {
+    private void findRedundantFiles(ValidatorContext ctx, ListMultimap<String, File> validatedRepoFilesMap, ListMultimap<String, File> validatedDistFilesMap, Map<File, DigestedContent> digestedDistFiles) {
         Set<String> redundantFileHashSet = Sets.difference(validatedDistFilesMap.keySet(), validatedRepoFilesMap.keySet());
+        if (redundantFileHashSet.isEmpty()) {
+            return;
+        }
+
+        // fingerprints are not comparable with other checksums, so full checksums of redundant files are needed
+        Map<String, String> redundantFileChecksums = new HashMap<String, String>();
         for (String redundantFileHash : redundantFileHashSet) {
-            if (localRepoFilesMap.containsKey(redundantFileHash)) {
-                // transitive dependency from remote repository, which belongs to distribution
-                continue;
+            File redundantFile = validatedDistFilesMap.get(redundantFileHash).get(0);
+            DigestedContent digestedContent = digestedDistFiles.get(redundantFile);
+            String checksum = digestedContent != null ? digestedContent.digest : checksum(ctx, redundantFile);
+            if (checksum != null) {
+                redundantFileChecksums.put(checksum, redundantFileHash);
             }
+        }
+
+        // transitive dependencies resolved from remote repositories, which belong to distribution
+        redundantFileChecksums.keySet().removeAll(resolutionLedger.getResolvedChecksums(".jar"));
+        if (!redundantFileChecksums.isEmpty()) {
+            redundantFileChecksums.keySet().removeAll(findLocalRepoChecksums(ctx, redundantFileChecksums.values(), validatedDistFilesMap));
+        }
+
+        for (String redundantFileHash : redundantFileChecksums.values()) {
             File redundantFile = validatedDistFilesMap.get(redundantFileHash).get(0);
             ctx.addError(this, 
                     redundantFile, new DistributionRedundantFileException(relativizeFile(ctx.getValidatedDistribution(), redundantFile)));
         }
     }
 
+    /**
+     * Artifacts already present in local repository, but not resolved during this run.
+     * Local repository is not walked, only candidate files are looked up: the path of redundant file within distribution, 
+     * if distribution keeps repository layout, and redundant file name in version directories of artifacts, 
+     * which were resolved during this run or whose artifactId is a prefix of redundant file name 
+     * and groupId is a groupId of resolved artifact or of pom in validated repository.
+     */
+    private Set<String> findLocalRepoChecksums(ValidatorContext ctx, Collection<String> redundantFileHashSet, ListMultimap<String, File> validatedDistFilesMap) {
+        Set<String> redundantFileNames = new HashSet<String>();
+        Set<File> candidateFiles = new LinkedHashSet<File>();
+        for (String redundantFileHash : redundantFileHashSet) {
+            for (File redundantFile : validatedDistFilesMap.get(redundantFileHash)) {
+                redundantFileNames.add(redundantFile.getName());
+                candidateFiles.add(new File(localRepository.getBasedir(), relativizeFile(ctx.getValidatedDistribution(), redundantFile).getPath()));
+            }
+        }
+
+        Set<File> artifactDirs = new HashSet<File>();
+        Set<File> groupDirs = new HashSet<File>();
+        for (File resolvedFile : resolutionLedger.getResolvedFiles().keySet()) {
+            File artifactDir = parent(resolvedFile, 2);
+            if (artifactDir != null) {
+                artifactDirs.add(artifactDir);
+                groupDirs.add(artifactDir.getParentFile());
+            }
+        }
+        for (File pomFile : listPomFiles(ctx, fileFilter)) {
+            File groupPath = parent(relativizeFile(ctx.getValidatedRepository(), pomFile), 3);
+            if (groupPath != null) {
+                groupDirs.add(new File(localRepository.getBasedir(), groupPath.getPath()));
+            }
+        }
+        for (String redundantFileName : redundantFileNames) {
+            for (int i = redundantFileName.indexOf('-'); i > 0; i = redundantFileName.indexOf('-', i + 1)) {
+                String artifactId = redundantFileName.substring(0, i);
+                for (File groupDir : groupDirs) {
+                    artifactDirs.add(new File(groupDir, artifactId));
+                }
+            }
+        }
+        for (File artifactDir : artifactDirs) {
+            File[] versionDirs = artifactDir.listFiles();
+            if (versionDirs == null) {
+                continue;
+            }
+            for (String redundantFileName : redundantFileNames) {
+                if (redundantFileName.startsWith(artifactDir.getName() + "-")) {
+                    for (File versionDir : versionDirs) {
+                        candidateFiles.add(new File(versionDir, redundantFileName));
+                    }
+                }
+            }
+        }
+
+        Set<String> checksums = new HashSet<String>();
+        for (File candidateFile : candidateFiles) {
+            if (candidateFile.isFile()) {
+                String checksum = checksum(ctx, candidateFile);
+                if (checksum != null) {
+                    checksums.add(checksum);
+                }
+            }
+        }
+        logger.debug("looked up {} candidate files in local repository, {} found", candidateFiles.size(), checksums.size());
+        return checksums;
+    }
+
     private void findDuplicateFiles(ValidatorContext ctx, ListMultimap<String, File> validatedRepoFilesMap, ListMultimap<String, File> validatedDistFilesMap) {
         for (Entry<String, Collection<File>> distFileEntry : validatedDistFilesMap.asMap().entrySet()) {
             if (distFileEntry.getValue().size() > 1) {
@@ -110,13 +229,9 @@ public class DistributionValidator implements Validator {
 
     private void findMisnomerFiles(ValidatorContext ctx, ListMultimap<String, File> validatedRepoFilesMap, ListMultimap<String, File> validatedDistFilesMap) {
         for (Entry<String, File> distFileEntry : validatedDistFilesMap.entries()) {
-            for (Entry<String, File> repoFileEntry : validatedRepoFilesMap.entries()) {
-                String distFileHash = distFileEntry.getKey();
-                String repoFileHash = repoFileEntry.getKey();
-                File distFile = distFileEntry.getValue();
-                File repoFile = repoFileEntry.getValue();
-
-                if (distFileHash.equals(repoFileHash) && !distFile.getName().equals(repoFile.getName())) {
+            File distFile = distFileEntry.getValue();
+            for (File repoFile : validatedRepoFilesMap.get(distFileEntry.getKey())) {
+                if (!distFile.getName().equals(repoFile.getName())) {
                     ctx.addError(this,
                             repoFile, new DistributionMisnomerFileException(
                                     relativizeFile(ctx.getValidatedRepository(), repoFile),
@@ -127,14 +242,16 @@ public class DistributionValidator implements Validator {
     }
 
     private void findCorruptedFiles(ValidatorContext ctx, ListMultimap<String, File> validatedRepoFilesMap, ListMultimap<String, File> validatedDistFilesMap) {
+        ListMultimap<String, Entry<String, File>> validatedRepoFilesByName = ArrayListMultimap.create();
+        for (Entry<String, File> repoFileEntry : validatedRepoFilesMap.entries()) {
+            validatedRepoFilesByName.put(repoFileEntry.getValue().getName(), repoFileEntry);
+        }
+
         for (Entry<String, File> distFileEntry : validatedDistFilesMap.entries()) {
-            for (Entry<String, File> repoFileEntry : validatedRepoFilesMap.entries()) {
-                String distFileHash = distFileEntry.getKey();
-                String repoFileHash = repoFileEntry.getKey();
-                File distFile = distFileEntry.getValue();
+            File distFile = distFileEntry.getValue();
+            for (Entry<String, File> repoFileEntry : validatedRepoFilesByName.get(distFile.getName())) {
                 File repoFile = repoFileEntry.getValue();
-
-                if (distFile.getName().equals(repoFile.getName()) && !distFileHash.equals(repoFileHash) ) {
+                if (!distFileEntry.getKey().equals(repoFileEntry.getKey())) {
                     ctx.addError(this,
                             repoFile, new DistributionCorruptedFileException(
                                     relativizeFile(ctx.getValidatedRepository(), repoFile),
@@ -144,31 +261,76 @@ public class DistributionValidator implements Validator {
         }
     }
     
-    private ListMultimap<String, File> mapFilesToChecksum(File dir) {
-        Collection<File> files = listFiles(dir);
+    private Map<File, DigestedContent> readArchive(ValidatorContext ctx, File archive) {
+        long start = System.currentTimeMillis();
+        try {
+            Map<File, DigestedContent> entries = DistributionArchive.read(archive, HASH_ALGORITHM, distributionFileFilter()).getEntries();
+            logger.debug("distribution archive {} contains {} files, read in {} ms", archive, entries.size(), System.currentTimeMillis() - start);
+            return entries;
+        } catch (IOException e) {
+            ctx.addError(this, archive, new DistributionArchiveException(archive, e));
+            return null;
+        }
+    }
+
+    private Map<File, String> calculateFingerprints(ValidatorContext ctx, Collection<File> validatedRepoFiles, Collection<File> validatedDistFiles, Map<File, DigestedContent> digestedDistFiles) {
+        List<File> files = new ArrayList<File>(validatedRepoFiles);
+        files.addAll(validatedDistFiles);
+
+        int threads = fingerprintThreads > 0 ? fingerprintThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("fingerprint-%d").setDaemon(true).build());
+        try {
+            ContentFingerprints contentFingerprints = new ContentFingerprints(HASH_ALGORITHM, executorService, fileDigests);
+            Map<File, String> fingerprints = contentFingerprints.calculate(files, digestedDistFiles);
+            for (Entry<File, IOException> failure : contentFingerprints.getFailures().entrySet()) {
+                ctx.addError(this, failure.getKey(), new DistributionUnreadableFileException(failure.getKey(), failure.getValue()));
+            }
+            return fingerprints;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ListMultimap<String, File> mapFilesToFingerprint(Collection<File> files, Map<File, String> fingerprints) {
         ListMultimap<String, File> filesHash = ArrayListMultimap.create();
         for (File file : files) {
-            try {
-                String checksum = ChecksumUtils.calc(file, Collections.singleton(HASH_ALGORITHM)).get(HASH_ALGORITHM).toString();
-                filesHash.put(checksum, file);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            String fingerprint = fingerprints.get(file);
+            if (fingerprint != null) {
+                filesHash.put(fingerprint, file);
             }
         }
         return filesHash;
     }
+
+    private String checksum(ValidatorContext ctx, File file) {
+        try {
+            return fileDigests.digest(file, HASH_ALGORITHM);
+        } catch (IOException e) {
+            ctx.addError(this, file, new DistributionUnreadableFileException(file, e));
+            return null;
+        }
+    }
+
+    private static File parent(File file, int levels) {
+        for (int i = 0; i < levels && file != null; i++) {
+            file = file.getParentFile();
+        }
+        return file;
+    }
     
-    private Collection<File> listFiles(File dir) {
-        IOFileFilter filter = and(
+    private Collection<File> listFiles(RepositoryInventory inventory) {
+        Collection<File> files = inventory.listFiles(distributionFileFilter());
+        return files;
+    }
+
+    private IOFileFilter distributionFileFilter() {
+        return and(
                 fileFilter,
                 suffixFileFilter(".jar"),
                 notFileFilter(suffixFileFilter("-javadoc.jar")),
                 notFileFilter(suffixFileFilter("-sources.jar")),
                 notFileFilter(suffixFileFilter("-tests.jar")),
                 notFileFilter(suffixFileFilter("-test-sources.jar")));
-        
-        Collection<File> files = FileUtils.listFiles(dir, filter, trueFileFilter());
-        return files;
     }
 
 }
\ No newline at end of file
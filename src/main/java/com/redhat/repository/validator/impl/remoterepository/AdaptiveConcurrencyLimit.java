@@ -0,0 +1,144 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.http.HttpStatus;
+
+/**
+ * Limits number of concurrent requests to remote repository, using additive increase and multiplicative decrease.
+ * Limit grows by one after each window of successful responses, while all permits are used.
+ * It is halved, at most once per round trip, when remote throttles (429, 503), request fails,
+ * or recent latency grows above tolerance of long-term latency.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_LATENCY_WEIGHT = 0.1;
+    private static final double LONG_LATENCY_WEIGHT = 0.01;
+    private static final long MIN_LATENCY_GROWTH = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final long start = System.nanoTime();
+
+    private double limit;
+    private int inFlight;
+    private double shortLatency;
+    private double longLatency;
+    private long lastDecrease;
+    private long completed;
+    private long throttled;
+    private long dropped;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int maxLimit) {
+        this(1, initialLimit, maxLimit, 2.0);
+    }
+
+    public AdaptiveConcurrencyLimit(int minLimit, int initialLimit, int maxLimit, double latencyTolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized void onResponse(long latencyNanos, int statusCode) {
+        completed++;
+        if (statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE || statusCode == 429) {
+            throttled++;
+            decrease();
+            return;
+        }
+
+        if (shortLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+        } else {
+            shortLatency = shortLatency * (1 - SHORT_LATENCY_WEIGHT) + latencyNanos * SHORT_LATENCY_WEIGHT;
+            longLatency = Math.min(latencyNanos, longLatency * (1 - LONG_LATENCY_WEIGHT) + latencyNanos * LONG_LATENCY_WEIGHT);
+        }
+
+        if (shortLatency > longLatency * latencyTolerance && shortLatency - longLatency > MIN_LATENCY_GROWTH) {
+            decrease();
+        } else if (inFlight >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public synchronized void onDropped() {
+        dropped++;
+        decrease();
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        if (lastDecrease != 0 && now - lastDecrease < shortLatency) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max(minLimit, Math.floor(limit / 2));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getCompleted() {
+        return completed;
+    }
+
+    public synchronized long getThrottled() {
+        return throttled;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((long) shortLatency);
+    }
+
+    /**
+     * Returns completed requests per second.
+     */
+    public synchronized double getThroughput() {
+        long elapsed = System.nanoTime() - start;
+        return elapsed > 0 ? completed * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return new ToStringBuilder(this)
+                .append("limit", getLimit())
+                .append("maxLimit", maxLimit)
+                .append("inFlight", inFlight)
+                .append("completed", completed)
+                .append("throttled", throttled)
+                .append("dropped", dropped)
+                .append("latencyMillis", getLatencyMillis())
+                .append("throughput", String.format("%.1f/s", getThroughput()))
+                .toString();
+    }
+
+}
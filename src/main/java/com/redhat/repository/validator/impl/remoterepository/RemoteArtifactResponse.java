@@ -0,0 +1,58 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+/**
+ * Outcome of HEAD request for remote artifact, reduced to what remote repository validators need, so it can be cached.
+ */
+public class RemoteArtifactResponse {
+
+    private final int status;
+    private final String statusLine;
+    private final String checksum;
+    private final String etag;
+    private final String lastModified;
+    private final long timestamp;
+
+    public RemoteArtifactResponse(int status, String statusLine, String checksum, String etag, String lastModified, long timestamp) {
+        this.status = status;
+        this.statusLine = statusLine;
+        this.checksum = checksum;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.timestamp = timestamp;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getStatusLine() {
+        return statusLine;
+    }
+
+    /**
+     * Checksum parsed by {@link ChecksumProvider}, available only for found artifacts.
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Time, when the response was received or revalidated.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    RemoteArtifactResponse revalidated(long timestamp) {
+        return new RemoteArtifactResponse(status, statusLine, checksum, etag, lastModified, timestamp);
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static com.redhat.repository.validator.internal.Utils.readFields;
+import static com.redhat.repository.validator.internal.Utils.writeFields;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+
+/**
+ * On-disk cache of remote artifact responses, shared by remote repository validators across runs. 
+ * Found artifacts are revalidated with conditional requests, missing artifacts aren't requested again until their entry expires.
+ * The cache file is gzipped text, one tab separated line per remote artifact.
+ */
+public class RemoteChecksumCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteChecksumCache.class);
+
+    private static final String CACHE_HEADER = "redhat-repository-validator remote checksum cache 2";
+
+    private final File cacheFile;
+    private final long notFoundTtl;
+    private final Object saveLock = new Object();
+    // guarded by this, together with modified
+    private Map<String, RemoteArtifactResponse> responses;
+    private boolean modified;
+
+    public RemoteChecksumCache(File cacheFile) {
+        this(cacheFile, TimeUnit.DAYS.toMillis(1));
+    }
+
+    public RemoteChecksumCache(File cacheFile, long notFoundTtl) {
+        this.cacheFile = cacheFile;
+        this.notFoundTtl = notFoundTtl;
+    }
+
+    /**
+     * Returns cached response, or null if there is none or it has already expired.
+     */
+    public RemoteArtifactResponse get(URI remoteArtifact) {
+        RemoteArtifactResponse response;
+        synchronized (this) {
+            response = getResponses().get(remoteArtifact.toString());
+        }
+        if (response != null && response.getStatus() == HttpStatus.SC_NOT_FOUND && System.currentTimeMillis() - response.getTimestamp() > notFoundTtl) {
+            return null;
+        }
+        return response;
+    }
+
+    public void put(URI remoteArtifact, RemoteArtifactResponse response) {
+        if (response.getStatus() == HttpStatus.SC_OK || response.getStatus() == HttpStatus.SC_NOT_FOUND) {
+            synchronized (this) {
+                getResponses().put(remoteArtifact.toString(), response);
+                modified = true;
+            }
+        }
+    }
+
+    /**
+     * Writes snapshot of entries, entries put while the snapshot is written stay marked for the next save.
+     */
+    public void save() {
+        synchronized (saveLock) {
+            Map<String, RemoteArtifactResponse> snapshot;
+            synchronized (this) {
+                if (!modified) {
+                    return;
+                }
+                snapshot = new HashMap<String, RemoteArtifactResponse>(responses);
+                modified = false;
+            }
+            if (!write(snapshot)) {
+                synchronized (this) {
+                    modified = true;
+                }
+            }
+        }
+    }
+
+    private boolean write(Map<String, RemoteArtifactResponse> snapshot) {
+        File tmpFile = new File(cacheFile.getPath() + ".tmp");
+        Writer out = null;
+        try {
+            FileUtils.forceMkdir(cacheFile.getAbsoluteFile().getParentFile());
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmpFile)), Charsets.UTF_8));
+            out.write(CACHE_HEADER + "\n");
+            for (Map.Entry<String, RemoteArtifactResponse> entry : snapshot.entrySet()) {
+                RemoteArtifactResponse response = entry.getValue();
+                writeFields(out, entry.getKey(), String.valueOf(response.getStatus()), 
+                        StringUtils.defaultString(response.getStatusLine()), StringUtils.defaultString(response.getChecksum()), 
+                        StringUtils.defaultString(response.getEtag()), StringUtils.defaultString(response.getLastModified()), 
+                        String.valueOf(response.getTimestamp()));
+            }
+            out.close();
+            out = null;
+            FileUtils.deleteQuietly(cacheFile);
+            FileUtils.moveFile(tmpFile, cacheFile);
+            return true;
+        } catch (IOException e) {
+            logger.warn("unable to save remote checksum cache {}: {}", cacheFile, e.getMessage());
+            FileUtils.deleteQuietly(tmpFile);
+            return false;
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private Map<String, RemoteArtifactResponse> getResponses() {
+        if (responses == null) {
+            responses = load();
+        }
+        return responses;
+    }
+
+    private Map<String, RemoteArtifactResponse> load() {
+        Map<String, RemoteArtifactResponse> loaded = new HashMap<String, RemoteArtifactResponse>();
+        if (!cacheFile.isFile()) {
+            return loaded;
+        }
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(cacheFile)), Charsets.UTF_8));
+            if (!CACHE_HEADER.equals(in.readLine())) {
+                logger.info("remote checksum cache {} has unknown version, ignoring it", cacheFile);
+                return loaded;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                List<String> fields = readFields(line);
+                if (fields.size() != 7) {
+                    throw new IOException("malformed entry `" + fields.get(0) + "`");
+                }
+                try {
+                    loaded.put(fields.get(0), new RemoteArtifactResponse(Integer.parseInt(fields.get(1)), 
+                            StringUtils.defaultIfEmpty(fields.get(2), null), StringUtils.defaultIfEmpty(fields.get(3), null), 
+                            StringUtils.defaultIfEmpty(fields.get(4), null), StringUtils.defaultIfEmpty(fields.get(5), null), 
+                            Long.parseLong(fields.get(6))));
+                } catch (NumberFormatException e) {
+                    throw new IOException("malformed entry `" + fields.get(0) + "`");
+                }
+            }
+            logger.debug("remote checksum cache {} contains {} entries", cacheFile, loaded.size());
+            return loaded;
+        } catch (IOException e) {
+            logger.warn("unable to load remote checksum cache {}: {}", cacheFile, e.getMessage());
+            return new HashMap<String, RemoteArtifactResponse>();
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * Artifact listed in remote repository index, identified by its path relative to repository root.
+ */
+public class RemoteIndexEntry implements Comparable<RemoteIndexEntry> {
+
+    public static final long UNKNOWN_SIZE = -1;
+
+    private final String path;
+    private final String sha1;
+    private final long size;
+
+    public RemoteIndexEntry(String path, String sha1, long size) {
+        this.path = path;
+        this.sha1 = sha1;
+        this.size = size;
+    }
+
+    public RemoteIndexEntry(Artifact artifact, String sha1, long size) {
+        this(path(artifact), sha1, size);
+    }
+
+    /**
+     * Returns path of artifact in default repository layout.
+     */
+    public static String path(Artifact artifact) {
+        StringBuilder path = new StringBuilder();
+        path.append(artifact.getGroupId().replace('.', '/')).append('/');
+        path.append(artifact.getArtifactId()).append('/');
+        path.append(artifact.getBaseVersion()).append('/');
+        path.append(artifact.getArtifactId()).append('-').append(artifact.getVersion());
+        if (artifact.getClassifier().length() > 0) {
+            path.append('-').append(artifact.getClassifier());
+        }
+        if (artifact.getExtension().length() > 0) {
+            path.append('.').append(artifact.getExtension());
+        }
+        return path.toString();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public int compareTo(RemoteIndexEntry other) {
+        return path.compareTo(other.path);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append(path).toString();
+    }
+
+}
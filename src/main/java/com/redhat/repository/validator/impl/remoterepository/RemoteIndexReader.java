@@ -0,0 +1,14 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Reads published index of remote repository, used by {@link RemoteRepositoryIndexCollisionValidator}.
+ */
+public interface RemoteIndexReader {
+
+    List<RemoteIndexEntry> read(InputStream in) throws IOException;
+
+}
@@ -0,0 +1,120 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+/**
+ * Reads Nexus indexer data file <code>.index/nexus-maven-repository-index.gz</code>.
+ * Each document is list of fields, artifact documents contain <code>u</code> (groupId|artifactId|version|classifier|extension),
+ * <code>i</code> (packaging|lastModified|size|...) and <code>1</code> (sha1), other documents are skipped.
+ */
+public class RemoteIndexReaderNexus implements RemoteIndexReader {
+
+    public static final String INDEX_PATH = ".index/nexus-maven-repository-index.gz";
+
+    private static final String NOT_AVAILABLE = "NA";
+
+    @Override
+    public List<RemoteIndexEntry> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in), 64 * 1024));
+        List<RemoteIndexEntry> entries = new ArrayList<RemoteIndexEntry>();
+
+        int version = data.readByte();
+        if (version != 1) {
+            throw new IOException("Unsupported index version " + version);
+        }
+        data.readLong(); // timestamp
+
+        Map<String, String> document;
+        while ((document = readDocument(data)) != null) {
+            RemoteIndexEntry entry = toEntry(document);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private RemoteIndexEntry toEntry(Map<String, String> document) {
+        String uinfo = document.get("u");
+        if (uinfo == null || document.containsKey("del")) {
+            return null;
+        }
+        String[] u = uinfo.split("\\|");
+        String[] i = document.containsKey("i") ? document.get("i").split("\\|") : new String[0];
+        if (u.length < 4) {
+            return null;
+        }
+
+        String classifier = NOT_AVAILABLE.equals(u[3]) ? "" : u[3];
+        String extension = u.length > 4 ? u[4] : (i.length > 0 ? i[0] : null);
+        if (extension == null || NOT_AVAILABLE.equals(extension)) {
+            return null;
+        }
+        long size = RemoteIndexEntry.UNKNOWN_SIZE;
+        if (i.length > 2 && !NOT_AVAILABLE.equals(i[2])) {
+            size = Long.parseLong(i[2]);
+        }
+        String sha1 = document.get("1");
+
+        return new RemoteIndexEntry(new DefaultArtifact(u[0], u[1], classifier, extension, u[2]), sha1 != null ? sha1.toLowerCase() : null, size);
+    }
+
+    private Map<String, String> readDocument(DataInputStream data) throws IOException {
+        int fieldCount;
+        try {
+            fieldCount = data.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        Map<String, String> document = new HashMap<String, String>();
+        for (int i = 0; i < fieldCount; i++) {
+            data.read(); // flags
+            String name = data.readUTF();
+            String value = readString(data);
+            document.put(name, value);
+        }
+        return document;
+    }
+
+    /**
+     * Reads modified UTF-8 string prefixed by int length, unlike {@link DataInputStream#readUTF()} which allows only 64k.
+     */
+    private String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+
+        char[] chars = new char[length];
+        int count = 0;
+        int index = 0;
+        while (index < length) {
+            int c = bytes[index] & 0xff;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+                index++;
+            } else if ((c & 0xe0) == 0xc0 && index + 1 < length) {
+                chars[count++] = (char) (((c & 0x1f) << 6) | (bytes[index + 1] & 0x3f));
+                index += 2;
+            } else if ((c & 0xf0) == 0xe0 && index + 2 < length) {
+                chars[count++] = (char) (((c & 0x0f) << 12) | ((bytes[index + 1] & 0x3f) << 6) | (bytes[index + 2] & 0x3f));
+                index += 3;
+            } else {
+                throw new UTFDataFormatException("malformed input around byte " + index);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Reads plain text index, one artifact per line in form <code>groupId:artifactId[:extension[:classifier]]:version sha1 [size]</code>, 
+ * empty lines and lines starting with <code>#</code> are ignored.
+ */
+public class RemoteIndexReaderText implements RemoteIndexReader {
+
+    @Override
+    public List<RemoteIndexEntry> read(InputStream in) throws IOException {
+        List<RemoteIndexEntry> entries = new ArrayList<RemoteIndexEntry>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = StringUtils.split(line);
+            if (fields.length < 2 || fields.length > 3) {
+                throw new IOException("Invalid index line " + lineNumber + ": " + line);
+            }
+            try {
+                long size = fields.length == 3 ? Long.parseLong(fields[2]) : RemoteIndexEntry.UNKNOWN_SIZE;
+                entries.add(new RemoteIndexEntry(new DefaultArtifact(fields[0]), fields[1].toLowerCase(), size));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid index line " + lineNumber + ": " + line, e);
+            }
+        }
+        return entries;
+    }
+
+}
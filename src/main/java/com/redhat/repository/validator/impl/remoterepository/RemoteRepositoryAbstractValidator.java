@@ -1,39 +1,72 @@
 package com.redhat.repository.validator.impl.remoterepository;
 
 import static com.redhat.repository.validator.internal.Utils.relativize;
-import static org.apache.commons.io.FileUtils.listFiles;
 import static org.apache.commons.io.filefilter.FileFilterUtils.and;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
 
+@ValidatorExecution(resource = ValidatorResource.NETWORK)
 public abstract class RemoteRepositoryAbstractValidator implements Validator {
     
-    private static final String[] ARTIFACT_FILE_EXTENSIONS = { "pom", "jar", "war", "ear", "par", "rar", "zip", "aar", "apklib" };
+    static final String[] ARTIFACT_FILE_EXTENSIONS = { "pom", "jar", "war", "ear", "par", "rar", "zip", "aar", "apklib" };
+    
+    private static final int INITIAL_CONCURRENCY_LIMIT = 4;
+    private static final int MAX_THROTTLED_RETRIES = 3;
+    private static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     
     protected final int maxConnTotal;
     protected final String remoteRepositoryUrl;
     protected final IOFileFilter fileFilter;
+    private RemoteChecksumCache checksumCache;
+    private double hedgingBudget;
+    private volatile AdaptiveConcurrencyLimit concurrencyLimit;
+    private volatile RequestHedging requestHedging;
+    private volatile ExecutorService hedgingExecutor;
 
     public RemoteRepositoryAbstractValidator(String remoteRepositoryUrl, IOFileFilter fileFilter, int maxConnTotal) {
         super();
@@ -42,57 +75,305 @@ public abstract class RemoteRepositoryAbstractValidator implements Validator {
         this.maxConnTotal = maxConnTotal;
     }
 
+    @Autowired(required = false)
+    public void setChecksumCache(RemoteChecksumCache checksumCache) {
+        this.checksumCache = checksumCache;
+    }
+
+    /**
+     * Enables hedging of slow requests, given budget is the fraction of requests which may be duplicated, zero disables hedging.
+     */
+    public void setHedgingBudget(double hedgingBudget) {
+        this.hedgingBudget = hedgingBudget;
+    }
+
+    /**
+     * Returns request hedging of the current or last validation, or null if hedging is disabled.
+     */
+    public RequestHedging getRequestHedging() {
+        return requestHedging;
+    }
+
+    /**
+     * Returns concurrency limit of the current or last validation, which exposes its metrics.
+     */
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * At most <code>maxConnTotal</code> requests are in flight, actual limit adapts to latency and throttling of remote repository. 
+     * Next artifact is submitted only after some request completes, so memory doesn't grow with repository size. 
+     * Validation returns after every artifact is completed.
+     */
     @Override
     public final void validate(final ValidatorContext ctx) {
-        final ExecutorService executorService = Executors.newFixedThreadPool(maxConnTotal);
-        final CloseableHttpClient httpClient = HttpClients.custom().setMaxConnTotal(maxConnTotal).build();
+        Map<File, URI> remoteArtifacts = findRemoteArtifacts(ctx);
+
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(Math.min(INITIAL_CONCURRENCY_LIMIT, maxConnTotal), maxConnTotal);
+        concurrencyLimit = limit;
+        final CountDownLatch completed = new CountDownLatch(remoteArtifacts.size());
+        final ExecutorService executorService = Executors.newFixedThreadPool(maxConnTotal, new ThreadFactoryBuilder().setNameFormat("remote-repository-%d").setDaemon(true).build());
+        requestHedging = hedgingBudget > 0 ? new RequestHedging(hedgingBudget) : null;
+        hedgingExecutor = hedgingBudget > 0 ? Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("remote-repository-hedging-%d").setDaemon(true).build()) : null;
+        int maxConnections = hedgingBudget > 0 ? maxConnTotal * 2 : maxConnTotal;
+        final CloseableHttpClient httpClient = HttpClients.custom().setMaxConnTotal(maxConnections).setMaxConnPerRoute(maxConnections).build();
 
         try {
-            for (final File file : findFiles(ctx)) {
-                try {
-                    final URI repoUri = ctx.getValidatedRepository().toURI();
-                    final URI localArtifact = file.toURI();
-                    final URI remoteArtifact = new URI(remoteRepositoryUrl + repoUri.relativize(localArtifact).toString());
-
-                    executorService.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            try {
-                                logger.trace("validating {}", relativize(ctx, file));
-                                validateArtifact(httpClient, localArtifact, remoteArtifact);
-                            } catch (Exception e) {
-                                ctx.addError(RemoteRepositoryAbstractValidator.this, file, e);
-                            }
+            for (final Entry<File, URI> remoteArtifact : remoteArtifacts.entrySet()) {
+                limit.acquire();
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        File file = remoteArtifact.getKey();
+                        try {
+                            logger.trace("validating {}", relativize(ctx, file));
+                            validateArtifact(httpClient, file.toURI(), remoteArtifact.getValue());
+                        } catch (Exception e) {
+                            ctx.addError(RemoteRepositoryAbstractValidator.this, file, e);
+                        } finally {
+                            limit.release();
+                            completed.countDown();
                         }
-                    });
-
-                } catch (URISyntaxException e) {
-                    throw new RuntimeException(e);
-                }
+                    }
+                });
+            }
+            while (!completed.await(1, TimeUnit.MINUTES)) {
+                logger.debug("waiting for {} of {} artifacts from {}, {}", completed.getCount(), remoteArtifacts.size(), remoteRepositoryUrl, limit);
+            }
+            logger.debug("validated {} artifacts from {}, {}, {}", remoteArtifacts.size(), remoteRepositoryUrl, limit, requestHedging);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+            if (hedgingExecutor != null) {
+                hedgingExecutor.shutdownNow();
+            }
+            if (checksumCache != null) {
+                checksumCache.save();
             }
-
             try {
-                executorService.shutdown();
-                executorService.awaitTermination(1, TimeUnit.HOURS);
-            } catch (InterruptedException e) {
+                httpClient.close();
+            } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
-        finally {
+    }
+
+    private Map<File, URI> findRemoteArtifacts(ValidatorContext ctx) {
+        URI repoUri = ctx.getValidatedRepository().toURI();
+        Map<File, URI> remoteArtifacts = new LinkedHashMap<File, URI>();
+        for (File file : findFiles(ctx)) {
             try {
-                httpClient.close();
-            } catch (IOException e) {
+                remoteArtifacts.put(file, new URI(remoteRepositoryUrl + repoUri.relativize(file.toURI()).toString()));
+            } catch (URISyntaxException e) {
                 throw new RuntimeException(e);
             }
         }
+        return remoteArtifacts;
     }
 
     protected Collection<File> findFiles(ValidatorContext ctx) {
         IOFileFilter artifactsFilter = new SuffixFileFilter(ARTIFACT_FILE_EXTENSIONS);
-        Collection<File> files = listFiles(ctx.getValidatedRepository(), and(fileFilter, artifactsFilter), trueFileFilter());
+        Collection<File> files = ctx.getRepositoryInventory().listFiles(and(fileFilter, artifactsFilter));
         return files;
     }
     
+    /**
+     * Sends HEAD request for remote artifact and parses its checksum. With checksum cache, artifacts missing recently 
+     * aren't requested at all, and cached checksum is revalidated with <code>If-None-Match</code> and <code>If-Modified-Since</code> headers.
+     */
+    protected RemoteArtifactResponse headArtifact(CloseableHttpClient httpClient, URI remoteArtifact, ChecksumProvider checksumProvider) throws IOException {
+        RemoteArtifactResponse cachedResponse = checksumCache != null ? checksumCache.get(remoteArtifact) : null;
+        if (cachedResponse != null && cachedResponse.getStatus() == HttpStatus.SC_NOT_FOUND) {
+            return cachedResponse;
+        }
+
+        RequestBuilder requestBuilder = RequestBuilder.head().setUri(remoteArtifact);
+        if (cachedResponse != null) {
+            if (cachedResponse.getEtag() != null) {
+                requestBuilder.addHeader(HttpHeaders.IF_NONE_MATCH, cachedResponse.getEtag());
+            }
+            if (cachedResponse.getLastModified() != null) {
+                requestBuilder.addHeader(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.getLastModified());
+            }
+        }
+
+        RemoteArtifactResponse response;
+        CloseableHttpResponse httpResponse = executeThrottled(httpClient, requestBuilder.build());
+        try {
+            int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
+            long now = System.currentTimeMillis();
+            if (httpStatusCode == HttpStatus.SC_NOT_MODIFIED && cachedResponse != null) {
+                response = cachedResponse.revalidated(now);
+            } else if (httpStatusCode == HttpStatus.SC_OK) {
+                response = new RemoteArtifactResponse(httpStatusCode, httpResponse.getStatusLine().toString(),
+                        checksumProvider.getRemoteArtifactChecksum(remoteArtifact, httpResponse),
+                        headerValue(httpResponse, HttpHeaders.ETAG), headerValue(httpResponse, HttpHeaders.LAST_MODIFIED), now);
+            } else {
+                response = new RemoteArtifactResponse(httpStatusCode, httpResponse.getStatusLine().toString(), null, null, null, now);
+            }
+        } finally {
+            httpResponse.close();
+        }
+
+        if (checksumCache != null) {
+            checksumCache.put(remoteArtifact, response);
+        }
+        return response;
+    }
+
+    /**
+     * Executes request and reports its latency to concurrency limit, throttled request is retried after delay requested by remote repository.
+     */
+    private CloseableHttpResponse executeThrottled(CloseableHttpClient httpClient, HttpUriRequest request) throws IOException {
+        AdaptiveConcurrencyLimit limit = concurrencyLimit;
+        for (int attempt = 0;; attempt++) {
+            long start = System.nanoTime();
+            CloseableHttpResponse httpResponse;
+            try {
+                httpResponse = executeHedged(httpClient, request);
+            } catch (IOException e) {
+                if (limit != null) {
+                    limit.onDropped();
+                }
+                throw e;
+            }
+
+            int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
+            if (limit != null) {
+                limit.onResponse(System.nanoTime() - start, httpStatusCode);
+            }
+            if ((httpStatusCode != HttpStatus.SC_SERVICE_UNAVAILABLE && httpStatusCode != 429) || attempt == MAX_THROTTLED_RETRIES) {
+                return httpResponse;
+            }
+
+            long delay = retryDelay(httpResponse, attempt);
+            httpResponse.close();
+            logger.trace("remote repository throttled {}, retrying in {} ms", request.getURI(), delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    /**
+     * Executes request, if hedging is enabled and request doesn't complete within running 95th percentile of latency, 
+     * duplicate request is sent and the first response is taken, the other request is aborted.
+     * Request runs inline on the calling thread, when hedging is disabled, there are not enough latency samples yet 
+     * or the budget doesn't allow another hedged request.
+     */
+    private CloseableHttpResponse executeHedged(CloseableHttpClient httpClient, HttpUriRequest request) throws IOException {
+        RequestHedging hedging = requestHedging;
+        ExecutorService executor = hedgingExecutor;
+        if (hedging == null || executor == null) {
+            return httpClient.execute(request);
+        }
+
+        long start = System.nanoTime();
+        hedging.onRequest();
+        long delay = hedging.getDelay();
+        if (delay < 0 || !hedging.canHedge()) {
+            CloseableHttpResponse httpResponse = httpClient.execute(request);
+            hedging.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return httpResponse;
+        }
+
+        CompletionService<CloseableHttpResponse> completionService = new ExecutorCompletionService<CloseableHttpResponse>(executor);
+        Map<Future<CloseableHttpResponse>, HttpUriRequest> pending = new HashMap<Future<CloseableHttpResponse>, HttpUriRequest>();
+        HttpUriRequest primaryRequest = RequestBuilder.copy(request).build();
+        pending.put(completionService.submit(executeCallable(httpClient, primaryRequest)), primaryRequest);
+        try {
+            Future<CloseableHttpResponse> done = completionService.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null && hedging.tryHedge()) {
+                logger.trace("hedging request {} after {} ms", request.getURI(), delay);
+                HttpUriRequest hedgedRequest = RequestBuilder.copy(request).build();
+                pending.put(completionService.submit(executeCallable(httpClient, hedgedRequest)), hedgedRequest);
+            }
+            while (true) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                HttpUriRequest doneRequest = pending.remove(done);
+                try {
+                    CloseableHttpResponse httpResponse = done.get();
+                    hedging.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    if (doneRequest != primaryRequest) {
+                        hedging.onHedgeWon();
+                    }
+                    return httpResponse;
+                } catch (ExecutionException e) {
+                    if (pending.isEmpty()) {
+                        Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                        throw Throwables.propagate(e.getCause());
+                    }
+                    done = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            abort(executor, completionService, pending);
+        }
+    }
+
+    private static Callable<CloseableHttpResponse> executeCallable(final CloseableHttpClient httpClient, final HttpUriRequest request) {
+        return new Callable<CloseableHttpResponse>() {
+            @Override
+            public CloseableHttpResponse call() throws IOException {
+                return httpClient.execute(request);
+            }
+        };
+    }
+
+    /**
+     * Aborts requests which are still pending and closes their responses, if they complete anyway.
+     */
+    private static void abort(ExecutorService executor, final CompletionService<CloseableHttpResponse> completionService, final Map<Future<CloseableHttpResponse>, HttpUriRequest> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (HttpUriRequest request : pending.values()) {
+            request.abort();
+        }
+        final int count = pending.size();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < count; i++) {
+                            IOUtils.closeQuietly(completionService.take().get());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException e) {
+                        // aborted request
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // validation is finished
+        }
+    }
+
+    private static long retryDelay(HttpResponse httpResponse, int attempt) {
+        String retryAfter = headerValue(httpResponse, HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null && retryAfter.trim().matches("\\d+")) {
+            return Math.min(MAX_RETRY_DELAY, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        }
+        return 200L << attempt;
+    }
+
+    private static String headerValue(HttpResponse httpResponse, String name) {
+        Header header = httpResponse.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
     protected abstract void validateArtifact(CloseableHttpClient httpClient, URI localArtifact, URI remoteArtifact) throws Exception;
     
     @Override
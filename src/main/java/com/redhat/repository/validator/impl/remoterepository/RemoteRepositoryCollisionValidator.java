@@ -7,10 +7,7 @@ import java.net.URI;
 
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 
 public class RemoteRepositoryCollisionValidator extends RemoteRepositoryAbstractValidator {
@@ -29,11 +26,10 @@ public class RemoteRepositoryCollisionValidator extends RemoteRepositoryAbstract
     @Override
     protected void validateArtifact(CloseableHttpClient httpClient, URI localArtifact, URI remoteArtifact) throws Exception {
         try {
-            HttpUriRequest httpRequest = RequestBuilder.head().setUri(remoteArtifact).build();
-            HttpResponse httpResponse = httpClient.execute(httpRequest);
-            int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
+            RemoteArtifactResponse response = headArtifact(httpClient, remoteArtifact, checksumProvider);
+            int httpStatusCode = response.getStatus();
             if (httpStatusCode == HttpStatus.SC_OK) {
-                String remoteArtifactHash = checksumProvider.getRemoteArtifactChecksum(remoteArtifact, httpResponse);
+                String remoteArtifactHash = response.getChecksum();
                 String localArtifactHash = checksumProvider.getLocalArtifactChecksum(localArtifact);
 
                 if (!equalsIgnoreCase(remoteArtifactHash, localArtifactHash)) {
@@ -43,7 +39,7 @@ public class RemoteRepositoryCollisionValidator extends RemoteRepositoryAbstract
             } else if (httpStatusCode == HttpStatus.SC_NOT_FOUND) {
                 // OK
             } else {
-                throw new RemoteRepositoryCollisionException("Remote repository [" + remoteRepositoryUrl + "] returned " + httpResponse.getStatusLine().toString() + " for artifact " + remoteArtifact);
+                throw new RemoteRepositoryCollisionException("Remote repository [" + remoteRepositoryUrl + "] returned " + response.getStatusLine() + " for artifact " + remoteArtifact);
             }
         } catch (IOException e) {
             throw new RemoteRepositoryCollisionException("Remote repository [" + remoteRepositoryUrl + "] request failed for artifact " + remoteArtifact, e);
@@ -0,0 +1,151 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.and;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.redhat.repository.validator.Validator;
+import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.internal.FileDigests;
+
+/**
+ * Index-backed variant of {@link RemoteRepositoryCollisionValidator},
+ * it downloads published index of remote repository once and merge joins it with sorted artifacts of validated repository,
+ * instead of sending request for each artifact.
+ */
+@ValidatorExecution(resource = ValidatorResource.NETWORK)
+public class RemoteRepositoryIndexCollisionValidator implements Validator {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String remoteRepositoryUrl;
+    private final String indexUrl;
+    private final RemoteIndexReader indexReader;
+    private final IOFileFilter fileFilter;
+    private FileDigests fileDigests = new FileDigests();
+
+    public RemoteRepositoryIndexCollisionValidator(String remoteRepositoryUrl) {
+        this(remoteRepositoryUrl, remoteRepositoryUrl + RemoteIndexReaderNexus.INDEX_PATH, new RemoteIndexReaderNexus());
+    }
+
+    public RemoteRepositoryIndexCollisionValidator(String remoteRepositoryUrl, String indexUrl, RemoteIndexReader indexReader) {
+        this(remoteRepositoryUrl, indexUrl, indexReader, FileFilterUtils.trueFileFilter());
+    }
+
+    public RemoteRepositoryIndexCollisionValidator(String remoteRepositoryUrl, String indexUrl, RemoteIndexReader indexReader, IOFileFilter fileFilter) {
+        this.remoteRepositoryUrl = remoteRepositoryUrl;
+        this.indexUrl = indexUrl;
+        this.indexReader = indexReader;
+        this.fileFilter = fileFilter;
+    }
+
+    @Autowired(required = false)
+    public void setFileDigests(FileDigests fileDigests) {
+        this.fileDigests = fileDigests;
+    }
+
+    @Override
+    public void validate(ValidatorContext ctx) {
+        List<RemoteIndexEntry> entries;
+        try {
+            long start = System.currentTimeMillis();
+            entries = readIndex();
+            logger.debug("index {} contains {} artifacts, read in {} ms", indexUrl, entries.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            ctx.addError(this, ctx.getValidatedRepository(), new RemoteRepositoryCollisionException("Remote repository [" + remoteRepositoryUrl + "] index " + indexUrl + " could not be read", e));
+            return;
+        }
+        Collections.sort(entries);
+
+        URI repoUri = ctx.getValidatedRepository().toURI();
+        TreeMap<String, File> files = new TreeMap<String, File>();
+        for (File file : ctx.getRepositoryInventory().listFiles(and(fileFilter, new SuffixFileFilter(RemoteRepositoryAbstractValidator.ARTIFACT_FILE_EXTENSIONS)))) {
+            files.put(repoUri.relativize(file.toURI()).toString(), file);
+        }
+
+        Iterator<Entry<String, File>> fileIterator = files.entrySet().iterator();
+        Iterator<RemoteIndexEntry> entryIterator = entries.iterator();
+        Entry<String, File> file = fileIterator.hasNext() ? fileIterator.next() : null;
+        RemoteIndexEntry entry = entryIterator.hasNext() ? entryIterator.next() : null;
+        while (file != null && entry != null) {
+            int result = file.getKey().compareTo(entry.getPath());
+            if (result == 0) {
+                try {
+                    validateArtifact(file.getValue(), ctx.getRepositoryInventory().length(file.getValue()), entry);
+                } catch (Exception e) {
+                    ctx.addError(this, file.getValue(), e);
+                }
+            }
+            if (result <= 0) {
+                file = fileIterator.hasNext() ? fileIterator.next() : null;
+            }
+            if (result >= 0) {
+                entry = entryIterator.hasNext() ? entryIterator.next() : null;
+            }
+        }
+    }
+
+    private void validateArtifact(File file, long fileSize, RemoteIndexEntry entry) throws Exception {
+        boolean different;
+        if (entry.getSize() != RemoteIndexEntry.UNKNOWN_SIZE && entry.getSize() != fileSize) {
+            different = true;
+        } else {
+            different = entry.getSha1() != null && !entry.getSha1().equals(fileDigests.digest(file, "SHA-1"));
+        }
+        if (different) {
+            throw new RemoteRepositoryCollisionException("Remote repository [" + remoteRepositoryUrl + "] contains already artifact " + remoteRepositoryUrl + entry.getPath() + " with different content");
+        }
+    }
+
+    private List<RemoteIndexEntry> readIndex() throws IOException {
+        URI indexUri = URI.create(indexUrl);
+        if ("file".equals(indexUri.getScheme())) {
+            InputStream in = new FileInputStream(new File(indexUri));
+            try {
+                return indexReader.read(in);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+
+        CloseableHttpClient httpClient = HttpClients.createDefault();
+        try {
+            CloseableHttpResponse httpResponse = httpClient.execute(new HttpGet(indexUri));
+            try {
+                if (httpResponse.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                    throw new IOException("Remote repository returned " + httpResponse.getStatusLine());
+                }
+                return indexReader.read(httpResponse.getEntity().getContent());
+            } finally {
+                httpResponse.close();
+            }
+        } finally {
+            httpClient.close();
+        }
+    }
+
+}
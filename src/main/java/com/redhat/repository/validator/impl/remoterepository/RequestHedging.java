@@ -0,0 +1,98 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * Decides when slow request to remote repository is hedged by duplicate request.
+ * Request is hedged after running 95th percentile of recent latencies,
+ * number of hedged requests is capped by budget, a fraction of all requests.
+ */
+public class RequestHedging {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECALCULATE_INTERVAL = 16;
+
+    private final double budget;
+    private final long[] samples = new long[WINDOW_SIZE];
+    private int sampleCount;
+    private long delay = -1;
+    private long requests;
+    private long hedged;
+    private long hedgesWon;
+
+    public RequestHedging(double budget) {
+        this.budget = budget;
+    }
+
+    public synchronized void onRequest() {
+        requests++;
+    }
+
+    /**
+     * Records latency of completed request, in milliseconds.
+     */
+    public synchronized void record(long latency) {
+        samples[sampleCount % WINDOW_SIZE] = latency;
+        sampleCount++;
+        if (sampleCount >= MIN_SAMPLES && (delay == -1 || sampleCount % RECALCULATE_INTERVAL == 0)) {
+            long[] window = Arrays.copyOf(samples, Math.min(sampleCount, WINDOW_SIZE));
+            Arrays.sort(window);
+            delay = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * Returns delay after which request should be hedged, in milliseconds, or -1 if there are not enough samples yet.
+     */
+    public synchronized long getDelay() {
+        return delay;
+    }
+
+    /**
+     * Returns true if budget allows one more hedged request, the budget is not consumed.
+     */
+    public synchronized boolean canHedge() {
+        return hedged + 1 <= budget * requests;
+    }
+
+    /**
+     * Returns true and consumes budget, if one more request can be hedged.
+     */
+    public synchronized boolean tryHedge() {
+        if (!canHedge()) {
+            return false;
+        }
+        hedged++;
+        return true;
+    }
+
+    public synchronized void onHedgeWon() {
+        hedgesWon++;
+    }
+
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    public synchronized long getHedged() {
+        return hedged;
+    }
+
+    public synchronized long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return new ToStringBuilder(this)
+                .append("delay", delay)
+                .append("requests", requests)
+                .append("hedged", hedged)
+                .append("hedgesWon", hedgesWon)
+                .toString();
+    }
+
+}
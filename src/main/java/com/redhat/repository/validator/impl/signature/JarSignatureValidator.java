@@ -3,34 +3,47 @@ package com.redhat.repository.validator.impl.signature;
 import static com.redhat.repository.validator.impl.signature.JarSignatureValidatorMode.VERIFY_JAR_IS_SIGNED;
 import static com.redhat.repository.validator.impl.signature.JarSignatureValidatorMode.VERIFY_JAR_IS_UNSIGNED;
 import static com.redhat.repository.validator.internal.Utils.relativize;
-import static org.apache.commons.io.FileUtils.listFiles;
-import static org.apache.commons.io.filefilter.FileFilterUtils.and;
-import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.CodeSigner;
 import java.util.Collection;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.internal.ParallelFileTask;
 
 @Named
+@ValidatorExecution(incremental = true)
 public class JarSignatureValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(JarSignatureValidator.class);
 
+    private static final Pattern SIGNATURE_FILE_PATTERN = Pattern.compile("META-INF/[^/]+\\.(SF|RSA|DSA|EC)", Pattern.CASE_INSENSITIVE);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Inject @Named("jarSignatureValidatorFilter")
     private IOFileFilter fileFilter;
 
+    @Value("#{systemProperties['redhat-repository-validator-jarSignatureThreads']?:0}")
+    private int jarSignatureThreads;
+
     private final JarSignatureValidatorMode mode;
 
     public JarSignatureValidator() {
@@ -42,37 +55,88 @@ public class JarSignatureValidator implements Validator {
     }
 
     @Override
-    public void validate(ValidatorContext ctx) {
-        Collection<File> files = listFiles(ctx.getValidatedRepository(), and(fileFilter, suffixFileFilter(".jar")), trueFileFilter());
-        for (File file : files) {
-            logger.trace("validating {}", relativize(ctx, file));
-            validateSignature(ctx, file);
-        }
+    public void validate(final ValidatorContext ctx) {
+        Collection<File> files = ctx.getRepositoryInventory().listFiles(".jar", fileFilter);
+        new ParallelFileTask("jar-signature-%d") {
+            @Override
+            protected void process(File file) {
+                logger.trace("validating {}", relativize(ctx, file));
+                validateSignature(ctx, file);
+            }
+        }.execute(files, jarSignatureThreads);
     }
 
     private void validateSignature(ValidatorContext ctx, File file) {
         File fileRelative = relativize(ctx, file);
         try {
-            ProcessBuilder pb = new ProcessBuilder("jarsigner", "-verify", file.getAbsolutePath());
-            Process p = pb.start();
-            p.waitFor();
-            String output = IOUtils.toString(p.getInputStream());
-            if (p.exitValue() == 0 && output.contains("jar is unsigned")) {
+            if (!containsSignatureFiles(file)) {
                 if (mode == VERIFY_JAR_IS_SIGNED) {
                     ctx.addError(this, file, new JarUnsignedException(fileRelative));
                 }
-            } else if (p.exitValue() == 0 && output.contains("jar verified")) {
-                if (mode == VERIFY_JAR_IS_UNSIGNED) {
-                    ctx.addError(this, file, new JarSignedException(fileRelative));
-                }
-            } else {
-                ctx.addError(this, file, new JarSignatureVerificationException(fileRelative, output));
+                return;
             }
-        } catch (InterruptedException e) {
+            if (mode == VERIFY_JAR_IS_UNSIGNED) {
+                // signature files alone are an error, so the jar is not inflated at all
+                ctx.addError(this, file, new JarSignedException(fileRelative));
+                return;
+            }
+            if (!verify(file)) {
+                ctx.addError(this, file, new JarSignatureVerificationException(fileRelative, new SecurityException("no entry is signed by accepted signature")));
+            }
+        } catch (SecurityException e) {
             ctx.addError(this, file, new JarSignatureVerificationException(fileRelative, e));
         } catch (IOException e) {
             ctx.addError(this, file, new JarSignatureVerificationException(fileRelative, e));
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Looks only at central directory, no entry is inflated.
+     */
+    private boolean containsSignatureFiles(File file) throws IOException {
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                if (SIGNATURE_FILE_PATTERN.matcher(entries.nextElement().getName()).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    /**
+     * Reads all entries, jar file verifies their digests from manifest while they are read, equivalent of <code>jarsigner -verify</code>, 
+     * returns true if some entry is signed by signature accepted by this jvm.
+     */
+    private boolean verify(File file) throws IOException {
+        JarFile jarFile = new JarFile(file, true);
+        try {
+            boolean verified = false;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                InputStream in = jarFile.getInputStream(entry);
+                try {
+                    while (in.read(buffer) != -1) {
+                        // code signers are known only after the entry is fully read
+                    }
+                } finally {
+                    in.close();
+                }
+                CodeSigner[] codeSigners = entry.getCodeSigners();
+                if (codeSigners != null && codeSigners.length > 0) {
+                    verified = true;
+                }
+            }
+            return verified;
+        } finally {
+            jarFile.close();
+        }
+    }
+
+}
@@ -1,7 +1,6 @@
 package com.redhat.repository.validator.impl.suspicious;
 
 import static com.redhat.repository.validator.internal.Utils.relativize;
-import static org.apache.commons.io.FileUtils.listFilesAndDirs;
 import static org.apache.commons.io.FilenameUtils.isExtension;
 import static org.apache.commons.io.FilenameUtils.removeExtension;
 import static org.apache.commons.lang3.StringUtils.removeEnd;
@@ -13,7 +12,6 @@ import java.util.Collection;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.slf4j.Logger;
@@ -21,14 +19,17 @@ import org.slf4j.LoggerFactory;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.internal.RepositoryInventory;
 
 @Named
+@ValidatorExecution(resource = ValidatorResource.DISK, incremental = true)
 public class SuspiciousFileValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(SuspiciousFileValidator.class);
     
-    private static final String[] POM_EXTENSION = { "pom" };
-    private static final String[] CHECKSUM_EXTENSIONS = { "sha1", "md5" };
+    private static final String[] CHECKSUM_EXTENSIONS = { "sha1", "md5", "sha256", "sha512" };
     private static final String[] ATTACHED_ARTIFACT_TYPES = { "-javadoc.jar", "-tests.jar", "-test-sources.jar", "-sources.jar" };
     private static final String[] ALLOWED_ARTIFACT_FILE_EXTENIONS = { "jar", "war", "ear", "par", "rar", "zip", "aar", "apklib" };
 
@@ -54,7 +55,7 @@ public class SuspiciousFileValidator implements Validator {
 
     @Override
     public void validate(ValidatorContext ctx) {
-        Collection<File> files = listFilesAndDirs(ctx.getValidatedRepository(), fileFilter, fileFilter);
+        Collection<File> files = ctx.getRepositoryInventory().listFilesAndDirs(fileFilter, fileFilter);
         for (File file : files) {
             logger.trace("validating {}", relativize(ctx, file));
             validateFile(ctx, file);
@@ -62,15 +63,16 @@ public class SuspiciousFileValidator implements Validator {
     }
 
     private void validateFile(ValidatorContext ctx, File file) {
+        RepositoryInventory inventory = ctx.getRepositoryInventory();
         String fileName = file.getName();
         String fileDir = file.getParent();
         
-        if (file.isDirectory() && file.getAbsolutePath().equals(ctx.getValidatedRepository().getAbsolutePath())) {
+        if (inventory.isDirectory(file) && file.getAbsolutePath().equals(ctx.getValidatedRepository().getAbsolutePath())) {
             return;
         }
 
-        if (file.isDirectory()) {
-            if (file.list().length == 0) {
+        if (inventory.isDirectory(file)) {
+            if (inventory.listDirectory(file).isEmpty()) {
                 fail(ctx, file, "empty directory");
             }
             return;
@@ -83,7 +85,7 @@ public class SuspiciousFileValidator implements Validator {
         for (String checksumExtension : checsumExtensions) {
             if (isExtension(fileName, checksumExtension)) {
                 File sourceFile = new File(fileDir, removeExtension(fileName));
-                if (!sourceFile.isFile()) {
+                if (!inventory.isFile(sourceFile)) {
                     fail(ctx, file, "checksum without source file");
                 }
                 return;
@@ -92,7 +94,7 @@ public class SuspiciousFileValidator implements Validator {
 
         for (String attachedArtifactType : attachedArtifactTypes) {
             if (fileName.endsWith(attachedArtifactType)) {
-                if (!existPrimaryArtifact(fileDir, fileName, attachedArtifactType)) {
+                if (!existPrimaryArtifact(inventory, fileDir, fileName, attachedArtifactType)) {
                     fail(ctx, file, "artifact " + removeStart(attachedArtifactType, "-") + " without primary artifact");
                 }
                 return;
@@ -103,8 +105,8 @@ public class SuspiciousFileValidator implements Validator {
         
         if (endsOnKnownFileExtension(fileName)) {
             File pomFile = new File(fileDir, removeExtension(fileName) + ".pom");
-            if (!pomFile.isFile()) {
-                Collection<File> pomFiles = FileUtils.listFiles(file.getParentFile(), POM_EXTENSION, false);
+            if (!inventory.isFile(pomFile)) {
+                Collection<File> pomFiles = inventory.listDirectory(file.getParentFile(), ".pom");
                 if (pomFiles.isEmpty()) {
                     fail(ctx, file, extension + " file without pom");
                 } else if (pomFiles.size() == 1) {
@@ -136,11 +138,11 @@ public class SuspiciousFileValidator implements Validator {
         return endsOnKnownFileExtension;
     }
     
-    private boolean existPrimaryArtifact(String fileDir, String fileName, String attachedArtifactType) {
+    private boolean existPrimaryArtifact(RepositoryInventory inventory, String fileDir, String fileName, String attachedArtifactType) {
         String fileNameWithoutExtension = removeEnd(fileName, attachedArtifactType);
         for (String allowedArtifactFileExtension : allowedArtifactFileExtensions) {
             File primaryArtifact = new File(fileDir, fileNameWithoutExtension + "." + allowedArtifactFileExtension);
-            if (primaryArtifact.isFile()) {
+            if (inventory.isFile(primaryArtifact)) {
                 return true;
             }
         }
@@ -14,9 +14,12 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.DependenciesValidator;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class)
 public class VersionAmbiguityValidator implements Validator {
 
     @Inject @Named("versionAmbiguityValidatorFilter")
@@ -26,9 +26,14 @@ import org.slf4j.LoggerFactory;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.ValidatorResource;
+import com.redhat.repository.validator.impl.DependenciesValidator;
+import com.redhat.repository.validator.internal.SessionCache;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(dependsOn = DependenciesValidator.class, resource = ValidatorResource.NETWORK)
 public class VersionOverlapValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(VersionOverlapValidator.class);
@@ -44,6 +49,7 @@ public class VersionOverlapValidator implements Validator {
 
     @Override
     public void validate(ValidatorContext ctx) {
+        SessionCache.startRun(repositorySystemSession, ctx);
         Iterator<Model> modelIterator = validatorSupport.effectiveModelIterator(ctx, fileFilter);
         while (modelIterator.hasNext()) {
             Model model = modelIterator.next();
@@ -85,6 +91,7 @@ public class VersionOverlapValidator implements Validator {
         DefaultRepositorySystemSession tempSession = new DefaultRepositorySystemSession(repositorySystemSession);
         LocalRepositoryManager tempLocalRepositoryManager = repositorySystem.newLocalRepositoryManager(tempSession, new LocalRepository(tmpLocalRepository));
         tempSession.setLocalRepositoryManager(tempLocalRepositoryManager);
+        tempSession.setWorkspaceReader(null); // artifacts of validated repository must not be found in other repositories
         return tempSession;
     }
 
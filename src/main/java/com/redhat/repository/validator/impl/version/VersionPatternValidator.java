@@ -15,9 +15,11 @@ import org.slf4j.LoggerFactory;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
 import com.redhat.repository.validator.internal.ValidatorSupport;
 
 @Named
+@ValidatorExecution(incremental = true)
 public class VersionPatternValidator implements Validator {
     
     private static final Logger logger = LoggerFactory.getLogger(VersionPatternValidator.class);
@@ -41,7 +43,7 @@ public class VersionPatternValidator implements Validator {
 
     @Override
     public void validate(ValidatorContext ctx) {
-        Iterator<Model> modelIterator = validatorSupport.effectiveModelIterator(ctx, fileFilter);
+        Iterator<Model> modelIterator = validatorSupport.rawModelIterator(ctx, fileFilter);
         while (modelIterator.hasNext()) {
             Model model = modelIterator.next();
             if (model != null) {
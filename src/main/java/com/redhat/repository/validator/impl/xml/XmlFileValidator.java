@@ -1,57 +1,114 @@
 package com.redhat.repository.validator.impl.xml;
 
+import static com.redhat.repository.validator.impl.xml.XmlFileValidatorMode.VERIFY_SCHEMA;
+import static com.redhat.repository.validator.impl.xml.XmlFileValidatorMode.VERIFY_WELL_FORMEDNESS;
 import static com.redhat.repository.validator.internal.Utils.relativize;
 import static org.apache.commons.io.filefilter.FileFilterUtils.and;
 import static org.apache.commons.io.filefilter.FileFilterUtils.nameFileFilter;
 import static org.apache.commons.io.filefilter.FileFilterUtils.notFileFilter;
 import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 import com.redhat.repository.validator.Validator;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.internal.ParallelFileTask;
 
 @Named
+@ValidatorExecution(incremental = true)
 public class XmlFileValidator implements Validator {
 
+    private static final String STREAM_EXCEPTION_MESSAGE_PREFIX = "Message: ";
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlFileValidator.class);
+
     @Inject @Named("xmlFileValidatorFilter")
     private IOFileFilter fileFilter;
-    private static final Logger logger = LoggerFactory.getLogger(XmlFileValidator.class);
 
-    @Override
-    public void validate(ValidatorContext ctx) {
-        Collection<File> xmlFiles = FileUtils.listFiles(ctx.getValidatedRepository(), and(fileFilter, excludePomFilesFilter(), includeXmlFileFilter()), trueFileFilter());
-        for (File xmlFile : xmlFiles) {
-            logger.trace("validating {}", relativize(ctx, xmlFile));
-            validateFile(ctx, xmlFile);
+    @Value("#{systemProperties['redhat-repository-validator-xmlThreads']?:0}")
+    private int xmlThreads;
+
+    private final XmlFileValidatorMode mode;
+
+    /**
+     * Schema factory and validator are expensive to create and aren't thread safe, so each thread reuses its own.
+     */
+    private final ThreadLocal<javax.xml.validation.Validator> schemaValidators = new ThreadLocal<javax.xml.validation.Validator>() {
+        @Override
+        protected javax.xml.validation.Validator initialValue() {
+            try {
+                SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+                Schema schema = factory.newSchema();
+                return schema.newValidator();
+            } catch (SAXException e) {
+                throw new RuntimeException(e);
+            }
         }
+    };
 
+    private final ThreadLocal<XMLInputFactory> inputFactories = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        }
+    };
+
+    public XmlFileValidator() {
+        this(VERIFY_SCHEMA);
+    }
+
+    public XmlFileValidator(XmlFileValidatorMode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public void validate(final ValidatorContext ctx) {
+        Collection<File> xmlFiles = ctx.getRepositoryInventory().listFiles(and(fileFilter, excludePomFilesFilter(), includeXmlFileFilter()));
+        new ParallelFileTask("xml-%d") {
+            @Override
+            protected void process(File xmlFile) {
+                logger.trace("validating {}", relativize(ctx, xmlFile));
+                if (mode == VERIFY_WELL_FORMEDNESS) {
+                    validateWellFormedness(ctx, xmlFile);
+                } else {
+                    validateFile(ctx, xmlFile);
+                }
+            }
+        }.execute(xmlFiles, xmlThreads);
     }
 
     private void validateFile(ValidatorContext ctx, File xmlFile) {
+        javax.xml.validation.Validator validator = schemaValidators.get();
         try {
             Source xmlSource = new StreamSource(xmlFile);
-            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            Schema schema = factory.newSchema();
-            javax.xml.validation.Validator validator = schema.newValidator();
             validator.validate(xmlSource);
         } catch (SAXParseException e) {
             ctx.addError(this, xmlFile, new XmlVerificationException(relativize(ctx, xmlFile), formatException(e)));
@@ -59,6 +116,33 @@ public class XmlFileValidator implements Validator {
             ctx.addError(this, xmlFile, new XmlVerificationException(relativize(ctx, xmlFile), e));
         } catch (IOException e) {
             ctx.addError(this, xmlFile, new XmlVerificationException(relativize(ctx, xmlFile), e));
+        } finally {
+            validator.reset();
+        }
+    }
+
+    private void validateWellFormedness(ValidatorContext ctx, File xmlFile) {
+        InputStream in = null;
+        XMLStreamReader reader = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(xmlFile));
+            reader = inputFactories.get().createXMLStreamReader(xmlFile.toURI().toString(), in);
+            while (reader.hasNext()) {
+                reader.next();
+            }
+        } catch (XMLStreamException e) {
+            ctx.addError(this, xmlFile, new XmlVerificationException(relativize(ctx, xmlFile), formatException(e)));
+        } catch (IOException e) {
+            ctx.addError(this, xmlFile, new XmlVerificationException(relativize(ctx, xmlFile), e));
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+            IOUtils.closeQuietly(in);
         }
     }
 
@@ -73,4 +157,17 @@ public class XmlFileValidator implements Validator {
     private String formatException(SAXParseException x) {
         return String.format("(%d, %d): %s", x.getLineNumber(), x.getColumnNumber(), x.getMessage());
     }
+
+    private String formatException(XMLStreamException x) {
+        // message of stream exception is prefixed with location, which is formatted the same way like for sax exception
+        String message = x.getMessage();
+        int messageStart = message.indexOf(STREAM_EXCEPTION_MESSAGE_PREFIX);
+        if (messageStart != -1) {
+            message = message.substring(messageStart + STREAM_EXCEPTION_MESSAGE_PREFIX.length());
+        }
+        if (x.getLocation() == null) {
+            return message;
+        }
+        return String.format("(%d, %d): %s", x.getLocation().getLineNumber(), x.getLocation().getColumnNumber(), message);
+    }
 }
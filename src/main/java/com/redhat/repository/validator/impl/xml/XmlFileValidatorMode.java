@@ -0,0 +1,15 @@
+package com.redhat.repository.validator.impl.xml;
+
+public enum XmlFileValidatorMode {
+
+    /**
+     * Validates xml files against schema, only well-formedness is verified for files without schema location.
+     */
+    VERIFY_SCHEMA,
+
+    /**
+     * Verifies only well-formedness with streaming parser, without schema and DTD processing.
+     */
+    VERIFY_WELL_FORMEDNESS
+
+}
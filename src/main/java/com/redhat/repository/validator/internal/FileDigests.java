@@ -0,0 +1,214 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.aether.util.ChecksumUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Run-wide cache of file digests, keyed by file, its size and last modified time.
+ * All algorithms needed by validators are computed in one read of the file,
+ * so checksum, distribution and remote repository validators don't read the same file repeatedly.
+ * Files are read through a reused direct buffer, big archives are memory-mapped.
+ * One instance is shared by the application context, it is cleared by {@link com.redhat.repository.validator.ValidationExecutor} 
+ * at the beginning of each validation run.
+ */
+public class FileDigests {
+
+    /**
+     * Algorithms always computed together, any other requested algorithm is added to them.
+     */
+    public static final Set<String> DEFAULT_ALGORITHMS = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList("MD5", "SHA-1")));
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MAPPED_THRESHOLD = 32L * 1024 * 1024;
+    private static final long MAPPED_CHUNK_SIZE = 256L * 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    private final Cache<DigestKey, Map<String, String>> digests = CacheBuilder.newBuilder()
+            .maximumSize(200000)
+            .recordStats()
+            .build();
+
+    // guards adding of missing algorithms to cached digests, so concurrent callers don't hash the same file twice
+    private final Striped<Lock> mergeLocks = Striped.lock(64);
+
+    /**
+     * Calculates digest of given file without any caching.
+     */
+    public static String calculate(File file, String algorithm) throws IOException {
+        String normalizedAlgorithm = normalize(algorithm);
+        return calculate(file, Collections.singleton(normalizedAlgorithm)).get(normalizedAlgorithm);
+    }
+
+    public String digest(File file, String algorithm) throws IOException {
+        String normalizedAlgorithm = normalize(algorithm);
+        return digest(file, Collections.singleton(normalizedAlgorithm)).get(normalizedAlgorithm);
+    }
+
+    /**
+     * Returns digests of given file, as lower case hex strings keyed by algorithm names like <code>SHA-1</code>.
+     */
+    public Map<String, String> digest(final File file, Collection<String> algorithms) throws IOException {
+        final Set<String> normalizedAlgorithms = new LinkedHashSet<String>(DEFAULT_ALGORITHMS);
+        for (String algorithm : algorithms) {
+            normalizedAlgorithms.add(normalize(algorithm));
+        }
+
+        DigestKey key = new DigestKey(file);
+        Map<String, String> result = load(key, file, normalizedAlgorithms);
+        if (result.keySet().containsAll(normalizedAlgorithms)) {
+            return result;
+        }
+
+        Lock lock = mergeLocks.get(key);
+        lock.lock();
+        try {
+            result = load(key, file, normalizedAlgorithms);
+            if (!result.keySet().containsAll(normalizedAlgorithms)) {
+                Set<String> missingAlgorithms = new LinkedHashSet<String>(normalizedAlgorithms);
+                missingAlgorithms.removeAll(result.keySet());
+                Map<String, String> merged = new HashMap<String, String>(result);
+                merged.putAll(calculate(file, missingAlgorithms));
+                result = Collections.unmodifiableMap(merged);
+                digests.put(key, result);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets all digests, called at the beginning of each validation run.
+     */
+    public void clear() {
+        digests.invalidateAll();
+    }
+
+    private Map<String, String> load(DigestKey key, final File file, final Set<String> algorithms) throws IOException {
+        try {
+            return digests.get(key, new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() throws IOException {
+                    return calculate(file, algorithms);
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public static String normalize(String algorithm) {
+        String normalized = algorithm.toUpperCase(Locale.ENGLISH);
+        if (normalized.matches("SHA\\d+")) {
+            normalized = "SHA-" + normalized.substring(3);
+        }
+        return normalized;
+    }
+
+    private static Map<String, String> calculate(File file, Collection<String> algorithms) throws IOException {
+        Map<String, MessageDigest> messageDigests = new HashMap<String, MessageDigest>();
+        for (String algorithm : algorithms) {
+            try {
+                messageDigests.put(algorithm, MessageDigest.getInstance(algorithm));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size >= MAPPED_THRESHOLD) {
+                for (long position = 0; position < size; position += MAPPED_CHUNK_SIZE) {
+                    update(messageDigests.values(), channel.map(MapMode.READ_ONLY, position, Math.min(MAPPED_CHUNK_SIZE, size - position)));
+                }
+            } else {
+                ByteBuffer buffer = buffers.get();
+                buffer.clear();
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    update(messageDigests.values(), buffer);
+                    buffer.clear();
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(channel);
+        }
+
+        Map<String, String> result = new HashMap<String, String>();
+        for (Map.Entry<String, MessageDigest> messageDigest : messageDigests.entrySet()) {
+            result.put(messageDigest.getKey(), ChecksumUtils.toHexString(messageDigest.getValue().digest()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void update(Collection<MessageDigest> messageDigests, ByteBuffer buffer) {
+        int position = buffer.position();
+        for (MessageDigest messageDigest : messageDigests) {
+            buffer.position(position);
+            messageDigest.update(buffer);
+        }
+    }
+
+    private static class DigestKey {
+
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        private DigestKey(File file) {
+            this.file = file.getAbsoluteFile();
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode() * 31 + (int) (lastModified ^ length);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DigestKey)) {
+                return false;
+            }
+            DigestKey other = (DigestKey) obj;
+            return file.equals(other.file) && lastModified == other.lastModified && length == other.length;
+        }
+
+    }
+
+}
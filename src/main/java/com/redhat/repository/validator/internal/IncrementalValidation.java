@@ -0,0 +1,585 @@
+package com.redhat.repository.validator.internal;
+
+import static com.redhat.repository.validator.internal.Utils.readFields;
+import static com.redhat.repository.validator.internal.Utils.writeFields;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.ModelReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.BaseEncoding;
+import com.redhat.repository.validator.ValidationError;
+import com.redhat.repository.validator.Validator;
+import com.redhat.repository.validator.ValidatorContext;
+
+/**
+ * Keeps manifest of the validated repository (path, size, last modified, sha1) together with findings of incremental validators.
+ * Next run compares the repository with the manifest, incremental validators then inspect only GAV directories
+ * with changed, added or removed files (and directories of poms inheriting from or importing changed poms),
+ * findings for other directories are carried over from the previous run.
+ * The state is stored as gzipped text, one manifest entry or finding per line, 
+ * state which can't be read is dropped and the whole repository is validated again.
+ */
+public class IncrementalValidation {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalValidation.class);
+
+    private static final String STATE_HEADER = "redhat-repository-validator incremental state 2";
+
+    private final File stateFile;
+    private final ModelReader modelReader;
+    private final FileDigests fileDigests;
+
+    public IncrementalValidation(File stateFile, ModelReader modelReader) {
+        this(stateFile, modelReader, new FileDigests());
+    }
+
+    public IncrementalValidation(File stateFile, ModelReader modelReader, FileDigests fileDigests) {
+        this.stateFile = stateFile;
+        this.modelReader = modelReader;
+        this.fileDigests = fileDigests;
+    }
+
+    public File getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * Compares the repository with previous state and carries over findings for unchanged directories into context.
+     */
+    public Run start(ValidatorContext ctx, Collection<Validator> validators) {
+        return new Run(ctx, validators);
+    }
+
+    public class Run {
+
+        private final ValidatorContext ctx;
+        private final RepositoryInventory inventory;
+        private final Map<String, Validator> validators = new HashMap<String, Validator>();
+        private final Map<String, ManifestEntry> manifest = new HashMap<String, ManifestEntry>();
+        private RepositoryInventory scope;
+
+        private Run(ValidatorContext ctx, Collection<Validator> incrementalValidators) {
+            this.ctx = ctx;
+            this.inventory = ctx.getRepositoryInventory();
+            for (Validator validator : incrementalValidators) {
+                validators.put(validator.getClass().getName(), validator);
+            }
+
+            State previous = validators.size() == incrementalValidators.size() ? readState() : null;
+            if (previous != null && !isCompatible(previous)) {
+                logger.info("incremental state `{}` belongs to other repository or validators, validating whole repository", stateFile);
+                previous = null;
+            }
+
+            Set<String> changed = collectManifest(previous);
+            if (previous != null) {
+                scope = inventory.subset(carryOverFindings(previous, changed));
+            }
+        }
+
+        /**
+         * Returns inventory of directories which incremental validators should inspect,
+         * or <code>null</code> when the whole repository has to be validated.
+         */
+        public RepositoryInventory getRepositoryInventory() {
+            return scope;
+        }
+
+        /**
+         * Stores manifest and findings of incremental validators for the next run.
+         */
+        public void finish() {
+            State state = new State();
+            state.repository = ctx.getValidatedRepository().getAbsolutePath();
+            state.validators.addAll(validators.keySet());
+            state.manifest = manifest;
+
+            for (ValidationError error : ctx.getErrors()) {
+                if (error.getValidator() == null) {
+                    logger.warn("validator ended with unexpected exception, incremental state `{}` is not stored", stateFile);
+                    FileUtils.deleteQuietly(stateFile);
+                    return;
+                }
+            }
+
+            Set<String> unstoredPaths = new HashSet<String>();
+            List<ValidationError> errors = new ArrayList<ValidationError>(ctx.getErrors());
+            errors.addAll(ctx.getIgnoredErrors());
+            for (ValidationError error : errors) {
+                if (!validators.containsKey(error.getValidator().getClass().getName())) {
+                    continue;
+                }
+                String path = error.getFile() != null ? relativize(error.getFile()) : null;
+                if (path == null || !(manifest.containsKey(path) || unstoredPaths.contains(path))) {
+                    logger.warn("finding `{}` is not related to file in repository, incremental state `{}` is not stored", error.getException().getMessage(), stateFile);
+                    FileUtils.deleteQuietly(stateFile);
+                    return;
+                }
+                if (unstoredPaths.contains(path)) {
+                    continue;
+                }
+                byte[] exception = serialize(error.getException());
+                if (exception == null) {
+                    // file without persistable findings is validated again in the next run
+                    unstoredPaths.add(path);
+                    manifest.remove(path);
+                    state.findings.remove(path);
+                    continue;
+                }
+                List<Finding> findings = state.findings.get(path);
+                if (findings == null) {
+                    findings = new ArrayList<Finding>();
+                    state.findings.put(path, findings);
+                }
+                findings.add(new Finding(error.getValidator().getClass().getName(), error.getException().getClass().getName(), error.getException().getMessage(), exception));
+            }
+
+            writeState(state);
+        }
+
+        private boolean isCompatible(State previous) {
+            return previous.repository.equals(ctx.getValidatedRepository().getAbsolutePath())
+                    && previous.validators.equals(new TreeSet<String>(validators.keySet()));
+        }
+
+        private Set<String> collectManifest(State previous) {
+            Set<String> changed = new HashSet<String>();
+            for (File file : inventory.listFilesAndDirs(FileFilterUtils.trueFileFilter(), FileFilterUtils.trueFileFilter())) {
+                String path = relativize(file);
+                if (path.isEmpty()) {
+                    continue;
+                }
+                ManifestEntry previousEntry = previous != null ? previous.manifest.get(path) : null;
+                ManifestEntry entry = new ManifestEntry();
+                entry.directory = inventory.isDirectory(file);
+                if (!entry.directory) {
+                    entry.size = inventory.length(file);
+                    entry.lastModified = inventory.lastModified(file);
+                    if (previousEntry != null && !previousEntry.directory && previousEntry.size == entry.size && previousEntry.lastModified == entry.lastModified) {
+                        entry.sha1 = previousEntry.sha1;
+                        entry.refs = previousEntry.refs;
+                    } else {
+                        entry.sha1 = sha1(file);
+                        if (previousEntry != null && !previousEntry.directory && previousEntry.size == entry.size && entry.sha1.equals(previousEntry.sha1)) {
+                            entry.refs = previousEntry.refs;
+                        } else {
+                            entry.refs = file.getName().endsWith(".pom") ? readRefs(file) : Collections.<String>emptyList();
+                            changed.add(path);
+                        }
+                    }
+                } else if (previousEntry == null || !previousEntry.directory) {
+                    changed.add(path);
+                }
+                manifest.put(path, entry);
+            }
+            if (previous != null) {
+                for (String path : previous.manifest.keySet()) {
+                    if (!manifest.containsKey(path)) {
+                        changed.add(path);
+                    }
+                }
+            }
+            return changed;
+        }
+
+        private Set<File> carryOverFindings(State previous, Set<String> changed) {
+            Set<String> affectedPaths = new HashSet<String>(changed);
+
+            // poms inheriting from or importing changed poms
+            ListMultimap<String, String> referencedBy = ArrayListMultimap.create();
+            for (Map.Entry<String, ManifestEntry> entry : manifest.entrySet()) {
+                if (entry.getValue().refs != null) {
+                    for (String ref : entry.getValue().refs) {
+                        referencedBy.put(ref, entry.getKey());
+                    }
+                }
+            }
+            Queue<String> queue = new LinkedList<String>(changed);
+            while (!queue.isEmpty()) {
+                for (String pom : referencedBy.get(queue.poll())) {
+                    if (affectedPaths.add(pom)) {
+                        queue.add(pom);
+                    }
+                }
+            }
+
+            Set<File> affectedDirs = new HashSet<File>();
+            for (String path : affectedPaths) {
+                File file = new File(ctx.getValidatedRepository(), path);
+                affectedDirs.add(file.getParentFile());
+                if (!inventory.isFile(file)) {
+                    affectedDirs.add(file);
+                }
+            }
+
+            ListMultimap<File, ValidationError> carriedOver = ArrayListMultimap.create();
+            for (Map.Entry<String, List<Finding>> entry : previous.findings.entrySet()) {
+                File file = new File(ctx.getValidatedRepository(), entry.getKey());
+                File dir = inventory.isDirectory(file) ? file : file.getParentFile();
+                if (!manifest.containsKey(entry.getKey()) || affectedDirs.contains(dir)) {
+                    continue;
+                }
+                for (Finding finding : entry.getValue()) {
+                    Exception exception = deserialize(finding.exception);
+                    if (exception == null) {
+                        affectedDirs.add(dir);
+                        break;
+                    }
+                    carriedOver.put(dir, new ValidationError(validators.get(finding.validator), exception, file));
+                }
+            }
+            // carried over findings are added before validators start, validators which skip files with findings
+            // consider only findings of validators they depend on, see ValidatorContext#getDependencyErrors
+            int carriedOverCount = 0;
+            for (File dir : carriedOver.keySet()) {
+                if (!affectedDirs.contains(dir)) {
+                    for (ValidationError error : carriedOver.get(dir)) {
+                        ctx.addError(error.getValidator(), error.getFile(), error.getException());
+                        carriedOverCount++;
+                    }
+                }
+            }
+
+            logger.info("incremental validation, {} changed paths, {} affected directories, {} findings carried over",
+                    changed.size(), affectedDirs.size(), carriedOverCount);
+            return affectedDirs;
+        }
+
+        private List<String> readRefs(File pomFile) {
+            Model model;
+            try {
+                model = modelReader.read(pomFile, null);
+            } catch (IOException e) {
+                return Collections.emptyList();
+            } catch (RuntimeException e) {
+                return Collections.emptyList();
+            }
+
+            List<String> refs = new ArrayList<String>();
+            Parent parent = model.getParent();
+            if (parent != null) {
+                refs.add(pomPath(parent.getGroupId(), parent.getArtifactId(), parent.getVersion()));
+            }
+            if (model.getDependencyManagement() != null) {
+                for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                    if ("import".equals(dependency.getScope())) {
+                        String groupId = interpolate(model, dependency.getGroupId());
+                        String version = interpolate(model, dependency.getVersion());
+                        if (groupId != null && version != null) {
+                            refs.add(pomPath(groupId, dependency.getArtifactId(), version));
+                        }
+                    }
+                }
+            }
+            return refs;
+        }
+
+        private String relativize(File file) {
+            String path = ctx.getValidatedRepository().toURI().relativize(file.toURI()).getPath();
+            return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        }
+
+    }
+
+    private static String pomPath(String groupId, String artifactId, String version) {
+        return groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId + "-" + version + ".pom";
+    }
+
+    private static String interpolate(Model model, String value) {
+        if (value == null || !value.startsWith("${") || !value.endsWith("}")) {
+            return value;
+        }
+        String key = value.substring(2, value.length() - 1);
+        Parent parent = model.getParent();
+        if (key.equals("project.version") || key.equals("pom.version") || key.equals("version")) {
+            return model.getVersion() != null ? model.getVersion() : (parent != null ? parent.getVersion() : null);
+        }
+        if (key.equals("project.groupId") || key.equals("pom.groupId") || key.equals("groupId")) {
+            return model.getGroupId() != null ? model.getGroupId() : (parent != null ? parent.getGroupId() : null);
+        }
+        if (key.equals("project.parent.version") && parent != null) {
+            return parent.getVersion();
+        }
+        String property = model.getProperties().getProperty(key);
+        return property != null && !property.contains("${") ? property : null;
+    }
+
+    private String sha1(File file) {
+        try {
+            return fileDigests.digest(file, "SHA-1");
+        } catch (IOException e) {
+            logger.warn("unable to calculate sha1 of `{}`: {}", file, e.getMessage());
+            return "";
+        }
+    }
+
+    private static byte[] serialize(Exception exception) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(bytes);
+            out.writeObject(exception);
+            out.flush();
+            byte[] result = bytes.toByteArray();
+            // findings, which couldn't be read back, are not stored at all
+            return deserialize(result) != null ? result : null;
+        } catch (IOException e) {
+            logger.debug("unable to store finding `{}`: {}", exception.getClass().getSimpleName(), e.toString());
+            return null;
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private static Exception deserialize(byte[] exception) {
+        ObjectInputStream in = null;
+        try {
+            in = new FindingInputStream(new ByteArrayInputStream(exception));
+            return (Exception) in.readObject();
+        } catch (IOException e) {
+            logger.debug("unable to read finding: {}", e.toString());
+            return null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private State readState() {
+        if (!stateFile.isFile()) {
+            logger.info("incremental state `{}` doesn't exist, validating whole repository", stateFile);
+            return null;
+        }
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(stateFile)), Charsets.UTF_8));
+            if (!STATE_HEADER.equals(in.readLine())) {
+                logger.info("incremental state `{}` has unknown version, validating whole repository", stateFile);
+                FileUtils.deleteQuietly(stateFile);
+                return null;
+            }
+            State state = new State();
+            String line;
+            while ((line = in.readLine()) != null) {
+                readLine(state, readFields(line));
+            }
+            if (state.repository == null) {
+                throw new IOException("repository is missing");
+            }
+            return state;
+        } catch (IOException e) {
+            logger.warn("unable to read incremental state `{}`, validating whole repository: {}", stateFile, e.getMessage());
+            IOUtils.closeQuietly(in);
+            FileUtils.deleteQuietly(stateFile);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private static void readLine(State state, List<String> fields) throws IOException {
+        String type = fields.get(0);
+        if (type.equals("repository") && fields.size() == 2) {
+            state.repository = fields.get(1);
+        } else if (type.equals("validator") && fields.size() == 2) {
+            state.validators.add(fields.get(1));
+        } else if (type.equals("dir") && fields.size() == 2) {
+            ManifestEntry entry = new ManifestEntry();
+            entry.directory = true;
+            state.manifest.put(fields.get(1), entry);
+        } else if (type.equals("file") && fields.size() >= 5) {
+            ManifestEntry entry = new ManifestEntry();
+            try {
+                entry.size = Long.parseLong(fields.get(2));
+                entry.lastModified = Long.parseLong(fields.get(3));
+            } catch (NumberFormatException e) {
+                throw new IOException("malformed manifest entry of " + fields.get(1));
+            }
+            entry.sha1 = fields.get(4);
+            entry.refs = new ArrayList<String>(fields.subList(5, fields.size()));
+            state.manifest.put(fields.get(1), entry);
+        } else if (type.equals("finding") && fields.size() == 6) {
+            byte[] exception;
+            try {
+                exception = BaseEncoding.base64().decode(fields.get(5));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("malformed finding of " + fields.get(1));
+            }
+            List<Finding> findings = state.findings.get(fields.get(1));
+            if (findings == null) {
+                findings = new ArrayList<Finding>();
+                state.findings.put(fields.get(1), findings);
+            }
+            findings.add(new Finding(fields.get(2), fields.get(3), fields.get(4), exception));
+        } else {
+            throw new IOException("malformed line `" + type + "`");
+        }
+    }
+
+    private void writeState(State state) {
+        File tmpFile = new File(stateFile.getPath() + ".tmp");
+        Writer out = null;
+        try {
+            File dir = stateFile.getAbsoluteFile().getParentFile();
+            FileUtils.forceMkdir(dir);
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmpFile)), Charsets.UTF_8));
+            out.write(STATE_HEADER + "\n");
+            writeFields(out, "repository", state.repository);
+            for (String validator : state.validators) {
+                writeFields(out, "validator", validator);
+            }
+            for (Map.Entry<String, ManifestEntry> entry : state.manifest.entrySet()) {
+                ManifestEntry manifestEntry = entry.getValue();
+                if (manifestEntry.directory) {
+                    writeFields(out, "dir", entry.getKey());
+                } else {
+                    List<String> fields = new ArrayList<String>();
+                    Collections.addAll(fields, "file", entry.getKey(), String.valueOf(manifestEntry.size), String.valueOf(manifestEntry.lastModified), manifestEntry.sha1);
+                    fields.addAll(manifestEntry.refs);
+                    writeFields(out, fields.toArray(new String[fields.size()]));
+                }
+            }
+            for (Map.Entry<String, List<Finding>> entry : state.findings.entrySet()) {
+                for (Finding finding : entry.getValue()) {
+                    writeFields(out, "finding", entry.getKey(), finding.validator, finding.exceptionType, finding.message != null ? finding.message : "", BaseEncoding.base64().encode(finding.exception));
+                }
+            }
+            out.close();
+            out = null;
+            FileUtils.deleteQuietly(stateFile);
+            FileUtils.moveFile(tmpFile, stateFile);
+            logger.debug("incremental state stored in `{}`", stateFile);
+        } catch (IOException e) {
+            logger.warn("unable to store incremental state `{}`: {}", stateFile, e.getMessage());
+            FileUtils.deleteQuietly(tmpFile);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Reads only exceptions and the few value types they consist of, any other class in stored finding is refused,
+     * so the state file can't instantiate arbitrary classes of the classpath.
+     */
+    private static class FindingInputStream extends ObjectInputStream {
+
+        private static final Set<Class<?>> ALLOWED_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+                String.class, File.class, StackTraceElement.class, Number.class, Boolean.class, Integer.class, Long.class,
+                ArrayList.class, Collections.emptyList().getClass(), Collections.unmodifiableCollection(new ArrayList<Object>()).getClass(),
+                Collections.unmodifiableList(new ArrayList<Object>()).getClass(), Collections.unmodifiableList(new LinkedList<Object>()).getClass()));
+        private static final String[] ALLOWED_THROWABLE_PACKAGES = { "java.", "javax.", "org.xml.sax.", "com.redhat.repository.validator." };
+
+        private FindingInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            Class<?> type = super.resolveClass(desc);
+            Class<?> componentType = type;
+            while (componentType.isArray()) {
+                componentType = componentType.getComponentType();
+            }
+            if (componentType.isPrimitive() || ALLOWED_TYPES.contains(componentType) || Enum.class.isAssignableFrom(componentType)) {
+                return type;
+            }
+            if (Throwable.class.isAssignableFrom(componentType)) {
+                for (String allowedPackage : ALLOWED_THROWABLE_PACKAGES) {
+                    if (componentType.getName().startsWith(allowedPackage)) {
+                        return type;
+                    }
+                }
+            }
+            throw new InvalidClassException(desc.getName(), "type is not allowed in incremental state");
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("proxy is not allowed in incremental state");
+        }
+
+    }
+
+    private static class State {
+
+        private String repository;
+        private Set<String> validators = new TreeSet<String>();
+        private Map<String, ManifestEntry> manifest = new HashMap<String, ManifestEntry>();
+        private Map<String, List<Finding>> findings = new HashMap<String, List<Finding>>();
+
+    }
+
+    private static class ManifestEntry {
+
+        private boolean directory;
+        private long size;
+        private long lastModified;
+        private String sha1;
+        private List<String> refs;
+
+    }
+
+    /**
+     * Finding keeps its validator, exception type and message as plain text, the serialized exception is kept only to report it again.
+     */
+    private static class Finding {
+
+        private final String validator;
+        private final String exceptionType;
+        private final String message;
+        private final byte[] exception;
+
+        private Finding(String validator, String exceptionType, String message, byte[] exception) {
+            this.validator = validator;
+            this.exceptionType = exceptionType;
+            this.message = message;
+            this.exception = exception;
+        }
+
+    }
+
+}
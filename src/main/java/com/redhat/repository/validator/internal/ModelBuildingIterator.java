@@ -0,0 +1,96 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.maven.model.building.ModelBuildingResult;
+
+import com.redhat.repository.validator.ValidatorContext;
+
+/**
+ * Iterates over models, which are built ahead of the consumer on given executor.
+ * At most <code>window</code> models are being built or waiting for the consumer at any time.
+ */
+class ModelBuildingIterator implements Iterator<ModelBuildingResult> {
+
+    private final ValidatorContext ctx;
+    private final ValidatorSupport validatorSupport;
+    private final Iterator<File> fileIterator;
+    private final ExecutorService executor;
+    private final int window;
+    private final boolean ordered;
+
+    private final Queue<Future<ModelBuildingResult>> pending = new LinkedList<Future<ModelBuildingResult>>();
+    private final CompletionService<ModelBuildingResult> completionService;
+    private int inFlight;
+
+    ModelBuildingIterator(ValidatorContext ctx, ValidatorSupport validatorSupport, Iterator<File> fileIterator, ExecutorService executor, int window, boolean ordered) {
+        this.ctx = ctx;
+        this.validatorSupport = validatorSupport;
+        this.fileIterator = fileIterator;
+        this.executor = executor;
+        this.window = window;
+        this.ordered = ordered;
+        this.completionService = ordered ? null : new ExecutorCompletionService<ModelBuildingResult>(executor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return inFlight > 0;
+    }
+
+    @Override
+    public ModelBuildingResult next() {
+        fill();
+        if (inFlight == 0) {
+            throw new NoSuchElementException();
+        }
+        try {
+            Future<ModelBuildingResult> future = ordered ? pending.poll() : completionService.take();
+            inFlight--;
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void fill() {
+        while (inFlight < window && fileIterator.hasNext()) {
+            final File pomFile = fileIterator.next();
+            Callable<ModelBuildingResult> task = new Callable<ModelBuildingResult>() {
+                @Override
+                public ModelBuildingResult call() {
+                    return validatorSupport.buildModel(ctx, pomFile);
+                }
+            };
+            if (ordered) {
+                pending.add(executor.submit(task));
+            } else {
+                completionService.submit(task);
+            }
+            inFlight++;
+        }
+    }
+
+}
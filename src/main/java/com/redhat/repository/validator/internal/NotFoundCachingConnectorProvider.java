@@ -0,0 +1,125 @@
+package com.redhat.repository.validator.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.internal.impl.DefaultRepositoryConnectorProvider;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.spi.connector.ArtifactUpload;
+import org.eclipse.aether.spi.connector.MetadataDownload;
+import org.eclipse.aether.spi.connector.MetadataUpload;
+import org.eclipse.aether.spi.connector.RepositoryConnector;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.spi.log.LoggerFactory;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.NoRepositoryConnectorException;
+import org.slf4j.Logger;
+
+/**
+ * Remembers artifacts, which were not found in remote repository, and fails their next downloads
+ * from the same repository without going to the network, so each missing artifact costs one lookup per repository.
+ * Failures are kept in repository cache of the session, so they are shared by all validators and dropped with the cache
+ * at the beginning of each validation run, see {@link SessionCache}.
+ */
+public class NotFoundCachingConnectorProvider extends DefaultRepositoryConnectorProvider {
+
+    private static final Logger logger = org.slf4j.LoggerFactory.getLogger(NotFoundCachingConnectorProvider.class);
+
+    static final String FAILED_DOWNLOADS_KEY = NotFoundCachingConnectorProvider.class.getName() + "$FailedDownloads";
+
+    @Inject
+    public NotFoundCachingConnectorProvider(Set<RepositoryConnectorFactory> connectorFactories, LoggerFactory loggerFactory) {
+        setRepositoryConnectorFactories(connectorFactories);
+        setLoggerFactory(loggerFactory);
+    }
+
+    @Override
+    public RepositoryConnector newRepositoryConnector(RepositorySystemSession session, RemoteRepository repository) throws NoRepositoryConnectorException {
+        RepositoryConnector connector = super.newRepositoryConnector(session, repository);
+        RepositoryCache cache = session.getCache();
+        if (cache == null) {
+            return connector;
+        }
+        return new NotFoundCachingConnector(connector, repository, failedDownloads(session, cache));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<String, ArtifactNotFoundException> failedDownloads(RepositorySystemSession session, RepositoryCache cache) {
+        synchronized (cache) {
+            ConcurrentMap<String, ArtifactNotFoundException> failedDownloads = (ConcurrentMap<String, ArtifactNotFoundException>) cache.get(session, FAILED_DOWNLOADS_KEY);
+            if (failedDownloads == null) {
+                failedDownloads = new ConcurrentHashMap<String, ArtifactNotFoundException>();
+                cache.put(session, FAILED_DOWNLOADS_KEY, failedDownloads);
+            }
+            return failedDownloads;
+        }
+    }
+
+    private static class NotFoundCachingConnector implements RepositoryConnector {
+
+        private final RepositoryConnector connector;
+        private final RemoteRepository repository;
+        private final ConcurrentMap<String, ArtifactNotFoundException> failedDownloads;
+
+        private NotFoundCachingConnector(RepositoryConnector connector, RemoteRepository repository, ConcurrentMap<String, ArtifactNotFoundException> failedDownloads) {
+            this.connector = connector;
+            this.repository = repository;
+            this.failedDownloads = failedDownloads;
+        }
+
+        @Override
+        public void get(Collection<? extends ArtifactDownload> artifactDownloads, Collection<? extends MetadataDownload> metadataDownloads) {
+            List<ArtifactDownload> downloads = null;
+            if (artifactDownloads != null) {
+                downloads = new ArrayList<ArtifactDownload>();
+                for (ArtifactDownload download : artifactDownloads) {
+                    ArtifactNotFoundException e = failedDownloads.get(key(download));
+                    if (e != null) {
+                        logger.trace("skipping download of {} from {}, it failed already: {}", download.getArtifact(), repository.getUrl(), e.getMessage());
+                        download.setException(e);
+                    } else {
+                        downloads.add(download);
+                    }
+                }
+            }
+
+            if ((downloads != null && !downloads.isEmpty()) || (metadataDownloads != null && !metadataDownloads.isEmpty())) {
+                connector.get(downloads, metadataDownloads);
+            }
+
+            if (downloads != null) {
+                for (ArtifactDownload download : downloads) {
+                    // transfer errors like timeouts or connection resets may pass on retry, so only missing artifacts are remembered
+                    if (download.getException() instanceof ArtifactNotFoundException) {
+                        failedDownloads.putIfAbsent(key(download), (ArtifactNotFoundException) download.getException());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void put(Collection<? extends ArtifactUpload> artifactUploads, Collection<? extends MetadataUpload> metadataUploads) {
+            connector.put(artifactUploads, metadataUploads);
+        }
+
+        @Override
+        public void close() {
+            connector.close();
+        }
+
+        private String key(ArtifactDownload download) {
+            return download.getArtifact() + " " + repository.getId() + " " + repository.getUrl();
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Processes files on a fixed pool, which lives only for one call of {@link #execute(Collection, int)}.
+ * The task is responsible for reporting its own errors.
+ */
+public abstract class ParallelFileTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelFileTask.class);
+
+    private final String threadNameFormat;
+
+    protected ParallelFileTask(String threadNameFormat) {
+        this.threadNameFormat = threadNameFormat;
+    }
+
+    protected abstract void process(File file);
+
+    /**
+     * Blocks until all files are processed, zero or negative threads means number of processors.
+     * Unexpected exception of any task is rethrown once all files are processed, so it reaches the validation executor.
+     */
+    public void execute(final Collection<File> files, int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat(threadNameFormat).setDaemon(true).build());
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>(files.size());
+            for (final File file : files) {
+                futures.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        process(file);
+                    }
+                }));
+            }
+            executorService.shutdown();
+            while (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.debug("waiting for {} to process {} files", threadNameFormat, files.size());
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfPossible(e.getCause());
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
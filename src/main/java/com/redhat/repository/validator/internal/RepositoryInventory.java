@@ -0,0 +1,234 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * Snapshot of a directory tree, taken by one walk which keeps the file attributes.
+ * Validators query it instead of walking the validated repository on their own.
+ */
+public class RepositoryInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryInventory.class);
+
+    private final File root;
+    private final RepositoryInventory origin;
+    private final List<File> files = new ArrayList<File>();
+    private final Map<File, BasicFileAttributes> attributes = new HashMap<File, BasicFileAttributes>();
+    private final ListMultimap<File, File> children = ArrayListMultimap.create();
+
+    private RepositoryInventory(File root, RepositoryInventory origin) {
+        this.root = root;
+        this.origin = origin != null ? origin : this;
+    }
+
+    public static RepositoryInventory scan(final File root) {
+        final RepositoryInventory inventory = new RepositoryInventory(root, null);
+        if (!root.isDirectory()) {
+            return inventory;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Files.walkFileTree(root.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    inventory.add(dir.toFile(), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    inventory.add(file.toFile(), attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("unable to read attributes of `{}`: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        logger.debug("inventory of `{}` contains {} files, scanned in {} ms", root, inventory.files.size(), System.currentTimeMillis() - start);
+
+        return inventory;
+    }
+
+    /**
+     * Returns inventory with files directly contained in given directories, 
+     * their ancestor directories are kept, but list only entries leading to given directories.
+     */
+    public RepositoryInventory subset(Collection<File> dirs) {
+        Set<File> ancestors = new HashSet<File>();
+        for (File dir : dirs) {
+            File ancestor = dir.getParentFile();
+            while (ancestor != null && ancestors.add(ancestor)) {
+                ancestor = ancestor.getParentFile();
+            }
+        }
+
+        RepositoryInventory subset = new RepositoryInventory(root, origin);
+        if (isDirectory(root)) {
+            subset.add(root, attributes.get(root));
+            subset(subset, root, new HashSet<File>(dirs), ancestors);
+        }
+        return subset;
+    }
+
+    private void subset(RepositoryInventory subset, File dir, Set<File> dirs, Set<File> ancestors) {
+        boolean included = dirs.contains(dir);
+        for (File child : children.get(dir)) {
+            if (isDirectory(child)) {
+                if (dirs.contains(child) || ancestors.contains(child)) {
+                    subset.add(child, attributes.get(child));
+                    subset(subset, child, dirs, ancestors);
+                }
+            } else if (included) {
+                subset.add(child, attributes.get(child));
+            }
+        }
+    }
+
+    /**
+     * Returns the scanned inventory, which this inventory is subset of, or itself.
+     */
+    public RepositoryInventory getOrigin() {
+        return origin;
+    }
+
+    private void add(File file, BasicFileAttributes attrs) {
+        attributes.put(file, attrs);
+        if (!file.equals(root)) {
+            children.put(file.getParentFile(), file);
+        }
+        if (!attrs.isDirectory()) {
+            files.add(file);
+        }
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Equivalent of <code>FileUtils.listFiles(root, fileFilter, trueFileFilter())</code>.
+     */
+    public Collection<File> listFiles(IOFileFilter fileFilter) {
+        List<File> result = new ArrayList<File>();
+        for (File file : files) {
+            if (fileFilter.accept(file)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    public Collection<File> listFiles(String suffix, IOFileFilter fileFilter) {
+        List<File> result = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().endsWith(suffix) && fileFilter.accept(file)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Equivalent of <code>FileUtils.listFilesAndDirs(root, fileFilter, dirFilter)</code>.
+     */
+    public Collection<File> listFilesAndDirs(IOFileFilter fileFilter, IOFileFilter dirFilter) {
+        Collection<File> result = new LinkedList<File>();
+        if (isDirectory(root)) {
+            result.add(root);
+            listFilesAndDirs(result, root, fileFilter, dirFilter);
+        }
+        return result;
+    }
+
+    private void listFilesAndDirs(Collection<File> result, File dir, IOFileFilter fileFilter, IOFileFilter dirFilter) {
+        for (File child : children.get(dir)) {
+            if (isDirectory(child)) {
+                if (dirFilter.accept(child)) {
+                    result.add(child);
+                    listFilesAndDirs(result, child, fileFilter, dirFilter);
+                }
+            } else if (fileFilter.accept(child)) {
+                result.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns files and directories directly contained in given directory, typically a GAV directory.
+     */
+    public List<File> listDirectory(File dir) {
+        return Collections.unmodifiableList(children.get(dir));
+    }
+
+    public List<File> listDirectory(File dir, String suffix) {
+        List<File> result = new ArrayList<File>();
+        for (File child : children.get(dir)) {
+            if (child.getName().endsWith(suffix) && isFile(child)) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    public boolean contains(File file) {
+        return attributes.containsKey(file);
+    }
+
+    public boolean isFile(File file) {
+        BasicFileAttributes attrs = attributes.get(file);
+        return attrs != null && !attrs.isDirectory();
+    }
+
+    public boolean isDirectory(File file) {
+        BasicFileAttributes attrs = attributes.get(file);
+        return attrs != null && attrs.isDirectory();
+    }
+
+    public long length(File file) {
+        BasicFileAttributes attrs = attributes.get(file);
+        return attrs != null ? attrs.size() : file.length();
+    }
+
+    public long lastModified(File file) {
+        BasicFileAttributes attrs = attributes.get(file);
+        return attrs != null ? attrs.lastModifiedTime().toMillis() : file.lastModified();
+    }
+
+}
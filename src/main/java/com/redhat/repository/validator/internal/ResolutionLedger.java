@@ -0,0 +1,86 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.WorkspaceRepository;
+import org.eclipse.aether.util.ChecksumUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records artifacts resolved into local repository, so validators can ask which files 
+ * were brought by dependency resolution, without scanning the whole local repository.
+ */
+public class ResolutionLedger extends AbstractRepositoryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionLedger.class);
+
+    private final Map<File, Artifact> resolvedFiles = new ConcurrentHashMap<File, Artifact>();
+    private final FileDigests fileDigests;
+
+    public ResolutionLedger(FileDigests fileDigests) {
+        this.fileDigests = fileDigests;
+    }
+
+    @Override
+    public void artifactResolved(RepositoryEvent event) {
+        if (event.getRepository() instanceof WorkspaceRepository) {
+            return; // resolved in place from validated repository
+        }
+        File file = event.getFile();
+        if (file == null && event.getArtifact() != null) {
+            file = event.getArtifact().getFile();
+        }
+        if (file != null && event.getArtifact() != null) {
+            resolvedFiles.put(file.getAbsoluteFile(), event.getArtifact());
+        }
+    }
+
+    public Map<File, Artifact> getResolvedFiles() {
+        return resolvedFiles;
+    }
+
+    /**
+     * Returns SHA-1 checksums of resolved files with given suffix, 
+     * taken from checksum files written by resolver, file is hashed only if its checksum file is missing.
+     */
+    public Set<String> getResolvedChecksums(String suffix) {
+        Set<String> checksums = new HashSet<String>();
+        for (File file : resolvedFiles.keySet()) {
+            if (file.getName().endsWith(suffix) && file.isFile()) {
+                String checksum = readChecksum(file);
+                if (checksum != null) {
+                    checksums.add(checksum);
+                }
+            }
+        }
+        return checksums;
+    }
+
+    private String readChecksum(File file) {
+        File checksumFile = new File(file.getPath() + ".sha1");
+        if (checksumFile.isFile()) {
+            try {
+                return ChecksumUtils.read(checksumFile).toLowerCase(Locale.ENGLISH);
+            } catch (IOException e) {
+                logger.debug("unable to read checksum file {}: {}", checksumFile, e.getMessage());
+            }
+        }
+        try {
+            return fileDigests.digest(file, "SHA-1");
+        } catch (IOException e) {
+            logger.warn("unable to calculate checksum of {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.redhat.repository.validator.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositorySystemSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redhat.repository.validator.ValidatorContext;
+
+/**
+ * Repository cache of the application session, shared by all validators resolving through it, with hit and miss counters.
+ * Dependency collector keeps its pools and artifact descriptors here, descriptors are held in bounded LRU map
+ * instead of collector's default weak map, so they survive between collections of different root POMs.
+ * Failed downloads are remembered here too, see {@link NotFoundCachingConnectorProvider}.
+ * The cache is invalidated at the beginning of each validation run.
+ */
+public class SessionCache implements RepositoryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCache.class);
+
+    /**
+     * Key of artifact descriptors in <code>org.eclipse.aether.internal.impl.DataPool</code>.
+     */
+    static final String DESCRIPTORS_KEY = "org.eclipse.aether.internal.impl.DataPool$Descriptors";
+
+    private final int maxDescriptors;
+    private final ConcurrentMap<Object, Object> cache = new ConcurrentHashMap<Object, Object>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong descriptorHits = new AtomicLong();
+    private final AtomicLong descriptorMisses = new AtomicLong();
+    private RepositoryInventory runInventory;
+
+    public SessionCache(int maxDescriptors) {
+        this.maxDescriptors = maxDescriptors;
+        clear();
+    }
+
+    /**
+     * Invalidates cache of given session, if the validation run of given context is a new one.
+     */
+    public static void startRun(RepositorySystemSession session, ValidatorContext ctx) {
+        if (session.getCache() instanceof SessionCache) {
+            ((SessionCache) session.getCache()).startRun(ctx.getRepositoryInventory().getOrigin());
+        }
+    }
+
+    private synchronized void startRun(RepositoryInventory inventory) {
+        if (runInventory != inventory) {
+            if (runInventory != null) {
+                logger.debug("invalidating session cache, {}", this);
+                clear();
+            }
+            runInventory = inventory;
+        }
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        hits.set(0);
+        misses.set(0);
+        descriptorHits.set(0);
+        descriptorMisses.set(0);
+        cache.put(DESCRIPTORS_KEY, Collections.synchronizedMap(new DescriptorMap()));
+    }
+
+    @Override
+    public void put(RepositorySystemSession session, Object key, Object data) {
+        cache.put(key, data);
+    }
+
+    @Override
+    public Object get(RepositorySystemSession session, Object key) {
+        Object data = cache.get(key);
+        if (data != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return data;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getDescriptorHits() {
+        return descriptorHits.get();
+    }
+
+    public long getDescriptorMisses() {
+        return descriptorMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("hits", hits.get())
+                .append("misses", misses.get())
+                .append("descriptorHits", descriptorHits.get())
+                .append("descriptorMisses", descriptorMisses.get())
+                .toString();
+    }
+
+    private class DescriptorMap extends LinkedHashMap<Object, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private DescriptorMap() {
+            super(256, 0.75f, true);
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object descriptor = super.get(key);
+            if (descriptor != null) {
+                descriptorHits.incrementAndGet();
+            } else {
+                descriptorMisses.incrementAndGet();
+            }
+            return descriptor;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+            return size() > maxDescriptors;
+        }
+
+    }
+
+}
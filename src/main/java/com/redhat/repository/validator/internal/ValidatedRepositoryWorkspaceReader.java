@@ -0,0 +1,75 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.WorkspaceReader;
+import org.eclipse.aether.repository.WorkspaceRepository;
+
+import com.redhat.repository.validator.ValidatorContext;
+
+/**
+ * Serves artifacts of validated repository in place, so they are not copied into local repository during resolution.
+ * Artifacts are looked up in inventory of the current validation run, see {@link #startRun(RepositorySystemSession, ValidatorContext)}.
+ */
+public class ValidatedRepositoryWorkspaceReader implements WorkspaceReader {
+
+    private final WorkspaceRepository repository = new WorkspaceRepository("validated");
+    private volatile RepositoryInventory inventory;
+
+    /**
+     * Points workspace reader of given session to the validated repository of given context.
+     */
+    public static void startRun(RepositorySystemSession session, ValidatorContext ctx) {
+        if (session.getWorkspaceReader() instanceof ValidatedRepositoryWorkspaceReader) {
+            ((ValidatedRepositoryWorkspaceReader) session.getWorkspaceReader()).inventory = ctx.getRepositoryInventory().getOrigin();
+        }
+    }
+
+    @Override
+    public WorkspaceRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public File findArtifact(Artifact artifact) {
+        RepositoryInventory inventory = this.inventory;
+        if (inventory == null) {
+            return null;
+        }
+        File file = new File(new File(artifactDir(inventory, artifact), artifact.getBaseVersion()), fileName(artifact, artifact.getVersion()));
+        return inventory.isFile(file) ? file : null;
+    }
+
+    @Override
+    public List<String> findVersions(Artifact artifact) {
+        List<String> versions = new ArrayList<String>();
+        RepositoryInventory inventory = this.inventory;
+        if (inventory != null) {
+            for (File versionDir : inventory.listDirectory(artifactDir(inventory, artifact))) {
+                if (inventory.isFile(new File(versionDir, fileName(artifact, versionDir.getName())))) {
+                    versions.add(versionDir.getName());
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static File artifactDir(RepositoryInventory inventory, Artifact artifact) {
+        return new File(new File(inventory.getRoot(), artifact.getGroupId().replace('.', '/')), artifact.getArtifactId());
+    }
+
+    private static String fileName(Artifact artifact, String version) {
+        StringBuilder fileName = new StringBuilder();
+        fileName.append(artifact.getArtifactId()).append('-').append(version);
+        if (artifact.getClassifier().length() > 0) {
+            fileName.append('-').append(artifact.getClassifier());
+        }
+        fileName.append('.').append(artifact.getExtension());
+        return fileName.toString();
+    }
+
+}
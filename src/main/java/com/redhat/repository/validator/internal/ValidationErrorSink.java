@@ -0,0 +1,231 @@
+package com.redhat.repository.validator.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.repository.validator.ValidationError;
+import com.redhat.repository.validator.Validator;
+
+/**
+ * Collects validation errors reported from many threads at once.
+ * Every thread appends into its own buffer, reporting doesn't touch any state shared with other threads.
+ * Lookups by file, exception type and validator use indexes, which are built lazily from the buffers when errors are read.
+ * Errors are returned ordered by validator, see {@link #setValidatorOrder(List)}, then by file and then in order of reporting,
+ * so the order doesn't depend on scheduling of validators.
+ */
+public class ValidationErrorSink {
+
+    private final AtomicInteger bufferIds = new AtomicInteger();
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<Buffer>();
+    private final ThreadLocal<Buffer> threadBuffer = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            Buffer buffer = new Buffer(bufferIds.getAndIncrement());
+            buffers.add(buffer);
+            return buffer;
+        }
+    };
+
+    // guarded by indexLock, together with Buffer.indexed
+    private final Object indexLock = new Object();
+    private final Map<Object, List<Entry>> fileIndex = new HashMap<Object, List<Entry>>();
+    private final Map<Object, List<Entry>> typeIndex = new HashMap<Object, List<Entry>>();
+    private final Map<Object, List<Entry>> validatorIndex = new HashMap<Object, List<Entry>>();
+
+    private volatile Map<Validator, Integer> validatorOrder = Collections.emptyMap();
+
+    /**
+     * Sets order of validators, usually order of their declaration, errors of unknown validators go last.
+     */
+    public void setValidatorOrder(List<? extends Validator> validators) {
+        Map<Validator, Integer> order = new IdentityHashMap<Validator, Integer>();
+        for (Validator validator : validators) {
+            order.put(validator, order.size());
+        }
+        this.validatorOrder = order;
+    }
+
+    public void add(ValidationError error) {
+        threadBuffer.get().add(error);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Buffer buffer : buffers) {
+            size += buffer.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns all errors reported so far.
+     */
+    public List<ValidationError> getErrors() {
+        List<Entry> entries = new ArrayList<Entry>();
+        for (Buffer buffer : buffers) {
+            buffer.copyTo(entries, 0);
+        }
+        return toErrors(entries);
+    }
+
+    public List<ValidationError> getErrors(File file) {
+        return getIndexed(fileIndex, file);
+    }
+
+    public List<ValidationError> getErrors(Validator validator) {
+        return getIndexed(validatorIndex, validator);
+    }
+
+    /**
+     * Returns errors with exception of given type or its subtype.
+     */
+    public List<ValidationError> getErrors(Class<? extends Exception> exceptionType) {
+        List<Entry> entries = new ArrayList<Entry>();
+        synchronized (indexLock) {
+            updateIndexes();
+            for (Map.Entry<Object, List<Entry>> typeEntries : typeIndex.entrySet()) {
+                if (exceptionType.isAssignableFrom((Class<?>) typeEntries.getKey())) {
+                    entries.addAll(typeEntries.getValue());
+                }
+            }
+        }
+        return toErrors(entries);
+    }
+
+    private List<ValidationError> getIndexed(Map<Object, List<Entry>> index, Object key) {
+        List<Entry> entries;
+        synchronized (indexLock) {
+            updateIndexes();
+            List<Entry> indexedEntries = index.get(key != null ? key : NULL_KEY);
+            if (indexedEntries == null) {
+                return Collections.emptyList();
+            }
+            entries = new ArrayList<Entry>(indexedEntries);
+        }
+        return toErrors(entries);
+    }
+
+    /**
+     * Adds entries reported since the last lookup into indexes.
+     */
+    private void updateIndexes() {
+        for (Buffer buffer : buffers) {
+            List<Entry> entries = new ArrayList<Entry>();
+            buffer.copyTo(entries, buffer.indexed);
+            buffer.indexed += entries.size();
+            for (Entry entry : entries) {
+                index(fileIndex, entry.error.getFile(), entry);
+                index(typeIndex, entry.error.getException().getClass(), entry);
+                index(validatorIndex, entry.error.getValidator(), entry);
+            }
+        }
+    }
+
+    private static void index(Map<Object, List<Entry>> index, Object key, Entry entry) {
+        key = key != null ? key : NULL_KEY;
+        List<Entry> entries = index.get(key);
+        if (entries == null) {
+            entries = new ArrayList<Entry>();
+            index.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    private List<ValidationError> toErrors(List<Entry> entries) {
+        final Map<Validator, Integer> order = validatorOrder;
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                int result = compareInts(position(order, e1.error.getValidator()), position(order, e2.error.getValidator()));
+                if (result == 0) {
+                    result = compareFiles(e1.error.getFile(), e2.error.getFile());
+                }
+                if (result == 0) {
+                    result = compareInts(e1.bufferId, e2.bufferId);
+                }
+                if (result == 0) {
+                    result = compareInts(e1.position, e2.position);
+                }
+                return result;
+            }
+        });
+        List<ValidationError> errors = new ArrayList<ValidationError>(entries.size());
+        for (Entry entry : entries) {
+            errors.add(entry.error);
+        }
+        return errors;
+    }
+
+    private static int position(Map<Validator, Integer> order, Validator validator) {
+        Integer position = validator != null ? order.get(validator) : null;
+        return position != null ? position : Integer.MAX_VALUE;
+    }
+
+    private static int compareFiles(File f1, File f2) {
+        if (f1 == null || f2 == null) {
+            return f1 == f2 ? 0 : (f1 == null ? -1 : 1);
+        }
+        return f1.compareTo(f2);
+    }
+
+    private static int compareInts(int i1, int i2) {
+        return i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+    }
+
+    private static final Object NULL_KEY = new Object();
+
+    private static class Entry {
+
+        private final int bufferId;
+        private final int position;
+        private final ValidationError error;
+
+        private Entry(int bufferId, int position, ValidationError error) {
+            this.bufferId = bufferId;
+            this.position = position;
+            this.error = error;
+        }
+
+    }
+
+    /**
+     * Written only by its owning thread, the monitor is contended only while a reader copies it.
+     */
+    private static class Buffer {
+
+        private final int id;
+        private final List<Entry> entries = new ArrayList<Entry>();
+        private int indexed;
+
+        private Buffer(int id) {
+            this.id = id;
+        }
+
+        private synchronized void add(ValidationError error) {
+            entries.add(new Entry(id, entries.size(), error));
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized void copyTo(List<Entry> target, int from) {
+            target.addAll(entries.subList(from, entries.size()));
+        }
+
+    }
+
+}
@@ -1,18 +1,18 @@
 package com.redhat.repository.validator.internal;
 
-import static org.apache.commons.io.FileUtils.iterateFiles;
-import static org.apache.commons.io.FileUtils.listFiles;
-import static org.apache.commons.io.filefilter.FileFilterUtils.and;
-import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
-import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
-
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.PreDestroy;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -25,6 +25,7 @@ import org.apache.maven.model.building.ModelBuilder;
 import org.apache.maven.model.building.ModelBuildingException;
 import org.apache.maven.model.building.ModelBuildingRequest;
 import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.io.ModelReader;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.ArtifactProperties;
 import org.eclipse.aether.artifact.ArtifactType;
@@ -32,53 +33,138 @@ import org.eclipse.aether.artifact.ArtifactTypeRegistry;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.artifact.DefaultArtifactType;
 import org.eclipse.aether.graph.Exclusion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.redhat.repository.validator.ValidatorContext;
 
 @Named
 public class ValidatorSupport {
 
+    private static final Logger logger = LoggerFactory.getLogger(ValidatorSupport.class);
+
+    // rough estimation of heap occupied by raw and effective model, per byte of pom file
+    private static final int MODEL_HEAP_PER_POM_BYTE = 20;
+
     @Inject
     private ModelBuilder modelBuilder;
     @Inject
     private ModelBuildingRequest modelBuildingRequestTemplate;
     @Inject
     private ArtifactTypeRegistry artifactTypeRegistry;
+    @Inject
+    private ModelReader modelReader;
+
+    @Value("#{systemProperties['redhat-repository-validator-modelBuildingThreads']?:0}")
+    private int modelBuildingThreads;
+    private ForkJoinPool modelBuildingPool;
+
+    private final Cache<ModelKey, ModelEntry> modelCache = CacheBuilder.newBuilder()
+            .maximumWeight(Runtime.getRuntime().maxMemory() / 4)
+            .weigher(new Weigher<ModelKey, ModelEntry>() {
+                @Override
+                public int weigh(ModelKey key, ModelEntry entry) {
+                    return (int) Math.min(Integer.MAX_VALUE, key.length * MODEL_HEAP_PER_POM_BYTE);
+                }
+            })
+            .softValues()
+            .recordStats()
+            .build();
+    private RepositoryInventory modelCacheInventory;
     
-    public static Collection<File> listPomFiles(File dir, IOFileFilter filter) {
-        Collection<File> pomFiles = listFiles(dir, and(filter, suffixFileFilter(".pom")), trueFileFilter());
+    public static Collection<File> listPomFiles(ValidatorContext ctx, IOFileFilter filter) {
+        Collection<File> pomFiles = ctx.getRepositoryInventory().listFiles(".pom", filter);
         return pomFiles;
     }
     
-    public ModelBuildingResult buildModel(File pomFile) {
-        ModelBuildingResult result = null;
-
-        DefaultModelBuildingRequest request = new DefaultModelBuildingRequest(modelBuildingRequestTemplate);
-        request.setPomFile(pomFile);
-        request.setModelSource(new FileModelSource(pomFile));
+    public ModelBuildingResult buildModel(ValidatorContext ctx, File pomFile) {
         try {
-            result = modelBuilder.build(request);
+            return buildModel(ctx, pomFile, modelBuildingRequestTemplate.getValidationLevel());
         } catch (ModelBuildingException e) {
-            result = null;
+            return null;
+        }
+    }
+
+    /**
+     * Effective models are cached for the duration of one validation run, so every pom is built only once, 
+     * no matter how many validators are interested in it.
+     */
+    public ModelBuildingResult buildModel(ValidatorContext ctx, final File pomFile, final int validationLevel) throws ModelBuildingException {
+        RepositoryInventory inventory = ctx.getRepositoryInventory();
+        invalidateModelCacheIfNewRun(inventory.getOrigin());
+
+        ModelKey key = new ModelKey(pomFile, inventory.lastModified(pomFile), inventory.length(pomFile), validationLevel);
+        ModelEntry entry;
+        try {
+            entry = modelCache.get(key, new Callable<ModelEntry>() {
+                @Override
+                public ModelEntry call() {
+                    DefaultModelBuildingRequest request = new DefaultModelBuildingRequest(modelBuildingRequestTemplate);
+                    request.setPomFile(pomFile);
+                    request.setModelSource(new FileModelSource(pomFile));
+                    request.setValidationLevel(validationLevel);
+                    try {
+                        return new ModelEntry(modelBuilder.build(request), null);
+                    } catch (ModelBuildingException e) {
+                        return new ModelEntry(null, e);
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+
+        if (entry.exception != null) {
+            throw entry.exception;
+        }
+        return entry.result;
+    }
+
+    private synchronized void invalidateModelCacheIfNewRun(RepositoryInventory inventory) {
+        if (modelCacheInventory != inventory) {
+            if (modelCacheInventory != null) {
+                logger.debug("invalidating model cache, {}", modelCache.stats());
+            }
+            modelCache.invalidateAll();
+            modelCacheInventory = inventory;
         }
-        
-        return result;
     }
     
-    public Iterator<ModelBuildingResult> modelIterator(final ValidatorContext ctx, IOFileFilter filter) {
-        final Iterator<File> fileIterator = iterateFiles(ctx.getValidatedRepository(), and(filter, suffixFileFilter(".pom")), trueFileFilter());
-        final Iterator<ModelBuildingResult> modelIterator = new Iterator<ModelBuildingResult>() {
+    public Iterator<ModelBuildingResult> modelIterator(ValidatorContext ctx, IOFileFilter filter) {
+        return modelIterator(ctx, filter, true);
+    }
+
+    /**
+     * Models are built in parallel ahead of the consumer, 
+     * in unordered mode they are returned as soon as they are built, otherwise in order of pom files.
+     */
+    public Iterator<ModelBuildingResult> modelIterator(ValidatorContext ctx, IOFileFilter filter, boolean ordered) {
+        ForkJoinPool pool = getModelBuildingPool();
+        Iterator<File> fileIterator = listPomFiles(ctx, filter).iterator();
+        return new ModelBuildingIterator(ctx, this, fileIterator, pool, pool.getParallelism() * 4, ordered);
+    }
+
+    public Iterator<Model> effectiveModelIterator(ValidatorContext ctx, IOFileFilter filter) {
+        return effectiveModelIterator(ctx, filter, true);
+    }
+
+    public Iterator<Model> effectiveModelIterator(ValidatorContext ctx, IOFileFilter filter, boolean ordered) {
+        final Iterator<ModelBuildingResult> modelIterator = modelIterator(ctx, filter, ordered);
+        final Iterator<Model> effectiveModelIterator = new Iterator<Model>() {
 
             @Override
             public boolean hasNext() {
-                return fileIterator.hasNext();
+                return modelIterator.hasNext();
             }
 
             @Override
-            public ModelBuildingResult next() {
-                File file = fileIterator.next();
-                ModelBuildingResult model = buildModel(file);
-                return model;
+            public Model next() {
+                ModelBuildingResult model = modelIterator.next();
+                return model != null ? model.getEffectiveModel() : null;
             }
 
             @Override
@@ -87,22 +173,26 @@ public class ValidatorSupport {
             }
         };
 
-        return modelIterator;
+        return effectiveModelIterator;
     }
     
-    public Iterator<Model> effectiveModelIterator(final ValidatorContext ctx, IOFileFilter filter) {
-        final Iterator<ModelBuildingResult> modelIterator = modelIterator(ctx, filter);
-        final Iterator<Model> effectiveModelIterator = new Iterator<Model>() {
+    /**
+     * Reads raw models, groupId and version are inherited from parent element when missing, 
+     * so checks of pom coordinates don't need parent poms in local repository.
+     * Effective model is built only when version is an expression, returns <code>null</code> for poms which can't be read or built.
+     */
+    public Iterator<Model> rawModelIterator(final ValidatorContext ctx, IOFileFilter filter) {
+        final Iterator<File> fileIterator = listPomFiles(ctx, filter).iterator();
+        return new Iterator<Model>() {
 
             @Override
             public boolean hasNext() {
-                return modelIterator.hasNext();
+                return fileIterator.hasNext();
             }
 
             @Override
             public Model next() {
-                ModelBuildingResult model = modelIterator.next();
-                return model != null ? model.getEffectiveModel() : null;
+                return readRawModel(ctx, fileIterator.next());
             }
 
             @Override
@@ -110,10 +200,48 @@ public class ValidatorSupport {
                 throw new UnsupportedOperationException();
             }
         };
+    }
 
-        return effectiveModelIterator;
+    private Model readRawModel(ValidatorContext ctx, File pomFile) {
+        Model model;
+        try {
+            model = modelReader.read(pomFile, null);
+        } catch (IOException e) {
+            logger.debug("unable to read {}: {}", pomFile, e.getMessage());
+            return null;
+        }
+        model.setPomFile(pomFile);
+        if (model.getParent() != null) {
+            if (model.getGroupId() == null) {
+                model.setGroupId(model.getParent().getGroupId());
+            }
+            if (model.getVersion() == null) {
+                model.setVersion(model.getParent().getVersion());
+            }
+        }
+        if (model.getVersion() == null || model.getVersion().contains("${")) {
+            ModelBuildingResult result = buildModel(ctx, pomFile);
+            return result != null ? result.getEffectiveModel() : null;
+        }
+        return model;
     }
-    
+
+    private synchronized ForkJoinPool getModelBuildingPool() {
+        if (modelBuildingPool == null) {
+            int parallelism = modelBuildingThreads > 0 ? modelBuildingThreads : Runtime.getRuntime().availableProcessors();
+            modelBuildingPool = new ForkJoinPool(parallelism);
+        }
+        return modelBuildingPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (modelBuildingPool != null) {
+            modelBuildingPool.shutdown();
+            modelBuildingPool = null;
+        }
+    }
+
     // copy from DefaultArtifactDescriptorReader
     public org.eclipse.aether.graph.Dependency convert(org.apache.maven.model.Dependency dependency) {
         ArtifactType stereotype = artifactTypeRegistry.get(dependency.getType());
@@ -150,4 +278,53 @@ public class ValidatorSupport {
         return result;
     }    
 
+    private static class ModelKey {
+
+        private final File pomFile;
+        private final long lastModified;
+        private final long length;
+        private final int validationLevel;
+
+        private ModelKey(File pomFile, long lastModified, long length, int validationLevel) {
+            this.pomFile = pomFile;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.validationLevel = validationLevel;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ModelKey)) {
+                return false;
+            }
+            ModelKey other = (ModelKey) obj;
+            return pomFile.equals(other.pomFile)
+                    && lastModified == other.lastModified
+                    && length == other.length
+                    && validationLevel == other.validationLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = pomFile.hashCode();
+            result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+            result = 31 * result + (int) (length ^ (length >>> 32));
+            result = 31 * result + validationLevel;
+            return result;
+        }
+
+    }
+
+    private static class ModelEntry {
+
+        private final ModelBuildingResult result;
+        private final ModelBuildingException exception;
+
+        private ModelEntry(ModelBuildingResult result, ModelBuildingException exception) {
+            this.result = result;
+            this.exception = exception;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.redhat.repository.validator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Test;
+
+public class TestValidationExecutor {
+
+    private final ValidatorContext ctx = new ValidatorContext(new File("target/executor-repo"), new File(""), Collections.<RemoteRepository>emptyList());
+    private final List<String> finished = new CopyOnWriteArrayList<String>();
+
+    @Test
+    public void shouldRunValidatorAfterItsDependencies() {
+        new ValidationExecutor(new DependentValidator(), new SlowValidator(), new IndependentValidator()).execute(ctx);
+
+        assertEquals(3, finished.size());
+        assertTrue(finished.indexOf("slow") < finished.indexOf("dependent"));
+    }
+
+    @Test
+    public void shouldReportUnexpectedException() {
+        new ValidationExecutor(new FailingValidator(), new DependentValidator(), new SlowValidator()).execute(ctx);
+
+        assertEquals(1, ctx.getExceptions().size());
+        assertEquals(2, finished.size());
+    }
+
+    @Test
+    public void shouldReportErrorsInOrderOfValidators() {
+        new ValidationExecutor(new ReportingValidator("a", 200), new ReportingValidator("b", 0)).execute(ctx);
+
+        List<Exception> exceptions = ctx.getExceptions();
+        assertEquals(4, exceptions.size());
+        assertEquals("a-1", exceptions.get(0).getMessage());
+        assertEquals("a-2", exceptions.get(1).getMessage());
+        assertEquals("b-1", exceptions.get(2).getMessage());
+        assertEquals("b-2", exceptions.get(3).getMessage());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldDetectCyclicDependencies() {
+        new ValidationExecutor(new CyclicValidatorA(), new CyclicValidatorB()).execute(ctx);
+    }
+
+    private class SlowValidator implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            finished.add("slow");
+        }
+    }
+
+    @ValidatorExecution(dependsOn = SlowValidator.class)
+    private class DependentValidator implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+            finished.add("dependent");
+        }
+    }
+
+    private class IndependentValidator implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+            finished.add("independent");
+        }
+    }
+
+    private class FailingValidator implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private class ReportingValidator implements Validator {
+
+        private final String name;
+        private final long delay;
+
+        private ReportingValidator(String name, long delay) {
+            this.name = name;
+            this.delay = delay;
+        }
+
+        @Override
+        public void validate(ValidatorContext ctx) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            // reported in reverse order of files
+            ctx.addError(this, new File("file-2"), new Exception(name + "-2"));
+            ctx.addError(this, new File("file-1"), new Exception(name + "-1"));
+        }
+    }
+
+    @ValidatorExecution(dependsOn = CyclicValidatorB.class)
+    private static class CyclicValidatorA implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+        }
+    }
+
+    @ValidatorExecution(dependsOn = CyclicValidatorA.class)
+    private static class CyclicValidatorB implements Validator {
+        @Override
+        public void validate(ValidatorContext ctx) {
+        }
+    }
+
+}
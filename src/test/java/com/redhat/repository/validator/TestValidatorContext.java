@@ -9,9 +9,13 @@ import com.redhat.repository.validator.filter.FilenameBasedExceptionFilter;
 import com.redhat.repository.validator.impl.source.JarSourcesVerificationException;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestValidatorContext {
 
@@ -31,4 +35,92 @@ public class TestValidatorContext {
         assertEquals("Non-filtered exception", exception, ctx.getExceptions().get(0));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldNotLoseConcurrentlyAddedErrors() throws InterruptedException {
+        final ValidatorContext ctx = new ValidatorContext(new File(""), new File(""), Collections.<RemoteRepository>emptyList());
+        final int threadCount = 8;
+        final int errorCount = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final File file = new File("file-" + i);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < errorCount; j++) {
+                        ctx.addError(null, file, new Exception(String.valueOf(j)));
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * errorCount, ctx.getErrors().size());
+        for (int i = 0; i < threadCount; i++) {
+            List<ValidationError> fileErrors = ctx.getErrors(new File("file-" + i));
+            assertEquals(errorCount, fileErrors.size());
+            for (int j = 0; j < errorCount; j++) {
+                assertEquals(String.valueOf(j), fileErrors.get(j).getException().getMessage());
+            }
+        }
+        assertTrue(ctx.getIgnoredErrors().isEmpty());
+    }
+
+    @Test
+    public void shouldFindErrorsByFileTypeAndValidator() {
+        ValidatorContext ctx = new ValidatorContext(new File(""), new File(""), Collections.<RemoteRepository>emptyList());
+        Validator validator = new Validator() {
+            @Override
+            public void validate(ValidatorContext ctx) {
+            }
+        };
+        File fooFile = new File("foo.pom");
+        File barFile = new File("bar.pom");
+        Exception fooException = new Exception();
+        JarSourcesVerificationException barException = new JarSourcesVerificationException(barFile);
+        IllegalStateException unexpectedException = new IllegalStateException();
+        ctx.addError(validator, fooFile, fooException);
+        ctx.addError(validator, barFile, barException);
+        ctx.addError(null, fooFile, unexpectedException);
+
+        assertEquals(2, ctx.getErrors(fooFile).size());
+        assertEquals(fooException, ctx.getErrors(fooFile).get(0).getException());
+        assertEquals(unexpectedException, ctx.getErrors(fooFile).get(1).getException());
+        assertTrue(ctx.getErrors(new File("baz.pom")).isEmpty());
+
+        assertEquals(Collections.singletonList(barException), ctx.getExceptions(JarSourcesVerificationException.class));
+        assertEquals(Collections.singletonList(unexpectedException), ctx.getExceptions(RuntimeException.class));
+        assertEquals(3, ctx.getExceptions(Exception.class).size());
+
+        assertEquals(2, ctx.getErrors(validator).size());
+        assertEquals(barException, ctx.getErrors(validator).get(0).getException());
+    }
+
+    @Test
+    public void shouldFindErrorsReportedAfterPreviousLookup() {
+        ValidatorContext ctx = new ValidatorContext(new File(""), new File(""), Collections.<RemoteRepository>emptyList());
+        File fooFile = new File("foo.pom");
+        Exception firstException = new Exception();
+        Exception secondException = new Exception();
+
+        ctx.addError(null, fooFile, firstException);
+        assertEquals(1, ctx.getErrors(fooFile).size());
+
+        ctx.addError(null, fooFile, secondException);
+        assertEquals(2, ctx.getErrors(fooFile).size());
+        assertEquals(secondException, ctx.getErrors(fooFile).get(1).getException());
+        assertEquals(2, ctx.getExceptions(Exception.class).size());
+    }
+
+}
@@ -31,6 +31,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import com.redhat.repository.validator.AppConfig;
 import com.redhat.repository.validator.ValidationExecutor;
 import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.impl.remoterepository.RemoteChecksumCache;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration
@@ -153,6 +154,12 @@ public abstract class AbstractTest {
             return new LocalRepository(repoLocalDir);
         }
 
+        @Bean
+        @Override
+        public RemoteChecksumCache remoteChecksumCache() {
+            return new RemoteChecksumCache(new File("target/remote-checksum-cache"));
+        }
+
     }
 
     public static class TestFileFilter implements IOFileFilter {
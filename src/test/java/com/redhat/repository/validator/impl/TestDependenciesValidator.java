@@ -6,9 +6,15 @@ import static com.redhat.repository.validator.impl.TestUtil.pom;
 import static com.redhat.repository.validator.impl.TestUtil.toArtifactFile;
 import static org.apache.commons.io.filefilter.FileFilterUtils.nameFileFilter;
 import static org.apache.commons.io.filefilter.FileFilterUtils.notFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+
+import javax.inject.Inject;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
@@ -18,18 +24,32 @@ import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.Profile;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.transfer.ArtifactNotFoundException;
 import org.junit.Test;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.io.Files;
+import com.redhat.repository.validator.ReportingExecutor;
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.ValidatorContext;
 import com.redhat.repository.validator.impl.UnknownArtifactTypeException;
+import com.redhat.repository.validator.internal.ValidatedRepositoryWorkspaceReader;
 
 @ContextConfiguration
 public class TestDependenciesValidator extends AbstractTest {
+
+    @Inject
+    private DependenciesValidator dependenciesValidator;
+    @Inject
+    private ReportingExecutor reportingExecutor;
+    @Inject
+    private RepositorySystemSession repositorySystemSession;
     
     @Configuration
     public static class TestConfiguration {
@@ -639,4 +659,59 @@ public class TestDependenciesValidator extends AbstractTest {
         assertSuccess();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldResolveValidatedArtifactsInPlace() {
+        Model bar = pom().artifactId("bar").create(repoBarDir);
+        Model foo = pom().artifactId("foo").dependency(bar).create(repoFooDir);
+
+        DefaultRepositorySystemSession session = (DefaultRepositorySystemSession) repositorySystemSession;
+        session.setWorkspaceReader(new ValidatedRepositoryWorkspaceReader());
+        try {
+            validationExecutor.execute(ctx);
+        } finally {
+            session.setWorkspaceReader(null);
+        }
+
+        assertSuccess();
+        assertLocalRepoContains(bar);
+        assertFalse(new File(repoLocalDir, "com/acme/foo/1.0/foo-1.0.pom").exists());
+        assertFalse(new File(repoLocalDir, "com/acme/foo/1.0/foo-1.0.jar").exists());
+    }
+
+    @Test
+    public void shouldReportSameErrorsLikeSequentialRun() throws IOException {
+        Model fooParent = pom().artifactId("foo-parent").packaging("pom").model();
+        Model barParent = pom().artifactId("bar-parent").packaging("pom").model();
+        for (int i = 0; i < 12; i++) {
+            if (i % 3 == 0) {
+                pom().artifactId("foo-" + i).parent(fooParent).create(repoFooDir);
+            } else if (i % 3 == 1) {
+                pom().artifactId("foo-" + i).parent(barParent).create(repoFooDir);
+            } else {
+                pom().artifactId("foo-" + i).packaging("foo-type").create(repoFooDir);
+            }
+        }
+
+        String sequentialReport = validateAndReport(1);
+        String parallelReport = validateAndReport(4);
+
+        assertTrue(sequentialReport.contains("bar-parent"));
+        assertTrue(sequentialReport.contains("foo-type"));
+        assertEquals(sequentialReport, parallelReport);
+    }
+
+    private String validateAndReport(int threads) throws IOException {
+        FileUtils.deleteDirectory(repoLocalDir);
+        FileUtils.deleteQuietly(new File("workspace/report.txt"));
+        ReflectionTestUtils.setField(dependenciesValidator, "dependenciesThreads", threads);
+        try {
+            ValidatorContext validatorContext = new ValidatorContext(repoFooDir, distributionDir, Arrays.asList(remoteRepoFoo, remoteRepoBar));
+            new ValidationExecutor(dependenciesValidator).execute(validatorContext);
+            reportingExecutor.execute(validatorContext);
+            return FileUtils.readFileToString(new File("workspace/report.txt"));
+        } finally {
+            ReflectionTestUtils.setField(dependenciesValidator, "dependenciesThreads", 0);
+        }
+    }
+
+}
@@ -1,6 +1,13 @@
 package com.redhat.repository.validator.impl;
 
 import static com.redhat.repository.validator.impl.TestUtil.pom;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import javax.inject.Inject;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.maven.model.Model;
@@ -11,8 +18,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.impl.bestpractices.BestPracticesException;
+import com.redhat.repository.validator.impl.bestpractices.BestPracticesValidator;
+
 @ContextConfiguration
 public class TestModelValidator extends AbstractTest {
+
+    @Inject
+    private ModelValidator modelValidator;
+    @Inject
+    private BestPracticesValidator bestPracticesValidator;
     
     @Configuration
     public static class TestConfiguration {
@@ -27,6 +43,11 @@ public class TestModelValidator extends AbstractTest {
             return new TestFileFilter();
         }
 
+        @Bean
+        public IOFileFilter bestPracticesValidatorFilter() {
+            return new TestFileFilter();
+        }
+
     }
 
     @Test
@@ -58,4 +79,20 @@ public class TestModelValidator extends AbstractTest {
         assertExpectedException(ModelBuildingException.class, "Invalid packaging for parent POM");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldIgnoreErrorsOfConcurrentValidators() {
+        Model fooParent = pom().artifactId("foo-parent").create(repoFooDir);
+        pom().artifactId("foo-api").parent(fooParent).create(repoFooDir);
+        File fooApiPom = new File(repoFooDir, "com/acme/foo-api/1.0/foo-api-1.0.pom");
+
+        // best practices validator runs next to model validator, so its finding may be registered before model validator starts
+        ctx.addError(bestPracticesValidator, fooApiPom, new BestPracticesException("Warning: artifact com.acme:foo-api:jar:1.0 doesn't contain <name>"));
+        new ValidationExecutor(bestPracticesValidator, modelValidator).execute(ctx);
+
+        assertFalse(ctx.getExceptions(BestPracticesException.class).isEmpty());
+        assertEquals(1, ctx.getErrors(modelValidator).size());
+        assertEquals(fooApiPom, ctx.getErrors(modelValidator).get(0).getFile());
+        assertTrue(ctx.getErrors(modelValidator).get(0).getException() instanceof ModelBuildingException);
+    }
+
+}
@@ -2,7 +2,16 @@ package com.redhat.repository.validator.impl.bom;
 
 import static com.redhat.repository.validator.impl.TestUtil.dependency;
 import static com.redhat.repository.validator.impl.TestUtil.pom;
+import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.maven.model.Model;
@@ -10,13 +19,19 @@ import org.junit.Test;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.ValidatorContext;
 import com.redhat.repository.validator.impl.AbstractTest;
 import com.redhat.repository.validator.impl.bom.BomDependencyNotFoundException;
 
 @ContextConfiguration
 public class TestBomDependencyNotFoundValidator extends AbstractTest {
 
+    @Inject
+    private BomDependencyNotFoundValidator bomDependencyNotFoundValidator;
+
     @Configuration
     public static class TestConfiguration {
 
@@ -109,4 +124,65 @@ public class TestBomDependencyNotFoundValidator extends AbstractTest {
         assertLocalRepoContains(barImpl);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReportSameMissingDependenciesInBatchedMode() throws IOException {
+        Model barApi = pom().artifactId("bar-api").model();
+        Model barImpl = pom().artifactId("bar-impl").dependency(barApi).create(repoBarDir);
+        Model bazImpl = pom().artifactId("baz-impl").dependency(barApi).create(repoBarDir);
+        Model qux = pom().artifactId("qux").model();
+
+        pom().artifactId("foo-bom").
+                packaging("pom").
+                dependencyManagement(barImpl).
+                dependencyManagement(bazImpl).
+                dependencyManagement(qux).
+                create(repoFooDir);
+
+        List<String> errors = validateBom(false);
+        List<String> batchedErrors = validateBom(true);
+
+        assertEquals(Arrays.asList(
+                "com.acme:bar-api:jar:1.0 from com.acme:bar-impl:jar:1.0",
+                "com.acme:bar-api:jar:1.0 from com.acme:baz-impl:jar:1.0",
+                "com.acme:qux:jar:1.0 from com.acme:qux:jar:1.0"), errors);
+        assertEquals(errors, batchedErrors);
+    }
+
+    @Test
+    public void shouldReportMissingDependencyOfLosingVersionInBatchedMode() throws IOException {
+        Model barUtil = pom().artifactId("bar-util").model();
+        Model barApi1 = pom().artifactId("bar-api").version("1.0").dependency(barUtil).create(repoBarDir);
+        Model barApi2 = pom().artifactId("bar-api").version("2.0").create(repoBarDir);
+        Model bazImpl = pom().artifactId("baz-impl").dependency(barApi2).create(repoBarDir);
+        Model barImpl = pom().artifactId("bar-impl").dependency(barApi1).create(repoBarDir);
+
+        pom().artifactId("foo-bom").
+                packaging("pom").
+                dependencyManagement(bazImpl).
+                dependencyManagement(barImpl).
+                create(repoFooDir);
+
+        List<String> errors = validateBom(false);
+        List<String> batchedErrors = validateBom(true);
+
+        assertEquals(Arrays.asList("com.acme:bar-util:jar:1.0 from com.acme:bar-impl:jar:1.0"), errors);
+        assertEquals(errors, batchedErrors);
+    }
+
+    private List<String> validateBom(boolean batchedResolution) throws IOException {
+        FileUtils.deleteDirectory(repoLocalDir);
+        ReflectionTestUtils.setField(bomDependencyNotFoundValidator, "batchedResolution", batchedResolution);
+        try {
+            ValidatorContext validatorContext = new ValidatorContext(repoFooDir, distributionDir, Arrays.asList(remoteRepoFoo, remoteRepoBar));
+            new ValidationExecutor(bomDependencyNotFoundValidator).execute(validatorContext);
+            List<String> errors = new ArrayList<String>();
+            for (BomDependencyNotFoundException e : validatorContext.getExceptions(BomDependencyNotFoundException.class)) {
+                errors.add(e.getMissingArtifact() + " from " + e.getDependencyNode().getChildren().get(0).getArtifact());
+            }
+            return errors;
+        } finally {
+            ReflectionTestUtils.setField(bomDependencyNotFoundValidator, "batchedResolution", false);
+        }
+    }
+
+}
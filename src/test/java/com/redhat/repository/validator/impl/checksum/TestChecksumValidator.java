@@ -6,11 +6,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 import javax.annotation.Resource;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
+import org.eclipse.aether.util.ChecksumUtils;
 import org.junit.Test;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -87,6 +89,25 @@ public class TestChecksumValidator extends AbstractTest {
         assertExpectedException(ChecksumNotMatchException.class, "foo-1.0.jar");
     }
     
+    @Test
+    public void shouldVerifyOptionalSha256Checksum() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        File jar = new File(fooDir, "foo-1.0.jar");
+        FileUtils.writeStringToFile(new File(fooDir, "foo-1.0.jar.sha256"), (String) ChecksumUtils.calc(jar, Arrays.asList("SHA-256")).get("SHA-256"));
+
+        validationExecutor.execute(ctx);
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldFindNotMatchSha256Checksum() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        FileUtils.writeStringToFile(new File(fooDir, "foo-1.0.jar.sha256"), "checksum");
+
+        validationExecutor.execute(ctx);
+        assertExpectedException(ChecksumNotMatchException.class, "foo-1.0.jar");
+    }
+
     @Test
     public void shouldIgnoreReadmeAndExampleSettingsAndMavenRepository() throws IOException {
         FileUtils.touch(new File(repoFooDir, "example-settings.xml"));
@@ -2,10 +2,16 @@ package com.redhat.repository.validator.impl.distribution;
 
 import static com.redhat.repository.validator.impl.TestUtil.pom;
 import static com.redhat.repository.validator.impl.suspicious.TestSuspiciousFileValidator.touch;
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
 import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
@@ -15,6 +21,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 
+import com.redhat.repository.validator.ValidatorContext;
 import com.redhat.repository.validator.impl.AbstractTest;
 import com.redhat.repository.validator.impl.distribution.DistributionCorruptedFileException;
 import com.redhat.repository.validator.impl.distribution.DistributionDuplicateFilesException;
@@ -36,6 +43,7 @@ public class DistributionValidatorTest extends AbstractTest {
     private final File distFooJar = new File(distributionDir, "foo-1.0.jar");
     private final File distBarJar = new File(distributionDir, "bar-1.0.jar");
     private final File distBazJar = new File(distributionDir, "baz-1.0.jar");
+    private final File distZip = new File(reposDir, "distribution.zip");
 
     @Test
     public void shouldSkipValidationIfDirectoryDontExists() throws IOException {
@@ -120,4 +128,89 @@ public class DistributionValidatorTest extends AbstractTest {
         assertSuccess();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldNotFindRedundantFilesIfTheyArePresentInLocalRepository() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        pom().artifactId("bar").create(repoBarDir, "target/test-classes/empty-signed.jar");
+
+        FileUtils.copyFile(new File(repoFooDir + "/com/acme/foo/1.0/foo-1.0.jar"), distFooJar);
+        FileUtils.copyFile(new File(repoBarDir + "/com/acme/bar/1.0/bar-1.0.jar"), new File(distributionDir, "com/acme/bar/1.0/bar-1.0.jar"));
+        FileUtils.copyDirectory(repoBarDir, repoLocalDir);
+
+        validationExecutor.execute(ctx);
+
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldNotFindRedundantFilesIfTheyArePresentInLocalRepositoryUnderGroupOfValidatedRepository() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        pom().artifactId("bar-api").create(repoBarDir, "target/test-classes/empty-signed.jar");
+
+        FileUtils.copyFile(new File(repoFooDir + "/com/acme/foo/1.0/foo-1.0.jar"), distFooJar);
+        FileUtils.copyFile(new File(repoBarDir + "/com/acme/bar-api/1.0/bar-api-1.0.jar"), new File(distributionDir, "bar-api-1.0.jar"));
+        FileUtils.copyDirectory(repoBarDir, repoLocalDir);
+
+        validationExecutor.execute(ctx);
+
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldValidateDistributionArchive() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        zip(distZip, "lib/foo-1.0.jar", readFileToByteArray(new File(repoFooDir + "/com/acme/foo/1.0/foo-1.0.jar")));
+        ctx = new ValidatorContext(repoFooDir, distZip, remoteRepos);
+
+        validationExecutor.execute(ctx);
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldFindMisnomerFilesInNestedArchive() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        File nestedZip = new File(distributionDir, "modules.zip");
+        zip(nestedZip, "bar-1.0.jar", readFileToByteArray(new File(repoFooDir + "/com/acme/foo/1.0/foo-1.0.jar")));
+        zip(distZip, "modules.zip", readFileToByteArray(nestedZip));
+        ctx = new ValidatorContext(repoFooDir, distZip, remoteRepos);
+
+        validationExecutor.execute(ctx);
+        assertExpectedException(DistributionMisnomerFileException.class, "File in distribution modules.zip/bar-1.0.jar has same content like file in repository com/acme/foo/1.0/foo-1.0.jar, but has different name");
+    }
+
+    @Test
+    public void shouldFindCorruptedFilesInArchive() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        zip(distZip, "foo-1.0.jar", readFileToByteArray(new File("target/test-classes/empty-signed-damaged.jar")));
+        ctx = new ValidatorContext(repoFooDir, distZip, remoteRepos);
+
+        validationExecutor.execute(ctx);
+        assertExpectedException(DistributionCorruptedFileException.class, "File in distribution foo-1.0.jar has same name like file in repository com/acme/foo/1.0/foo-1.0.jar, but has different content");
+    }
+
+    @Test
+    public void shouldReportDamagedDistributionArchive() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+        byte[] content = new byte[4096];
+        new Random(0).nextBytes(content);
+        zip(distZip, "foo-1.0.jar", content);
+        byte[] damaged = readFileToByteArray(distZip);
+        FileUtils.writeByteArrayToFile(distZip, Arrays.copyOf(damaged, damaged.length / 2));
+        ctx = new ValidatorContext(repoFooDir, distZip, remoteRepos);
+
+        validationExecutor.execute(ctx);
+        assertExpectedException(DistributionArchiveException.class, "Unable to read distribution archive " + distZip);
+    }
+
+    private static void zip(File zipFile, String entryName, byte[] content) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile));
+        try {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(content);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.redhat.repository.validator.impl.distribution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.redhat.repository.validator.internal.FileDigests;
+
+public class TestContentFingerprints {
+
+    private final File dir = new File("target/fingerprints");
+    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @After
+    public void dispose() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldAssignSameFingerprintToSameContent() throws IOException {
+        File foo = write("foo.jar", content(200 * 1024, 'x'));
+        File fooCopy = write("dist/foo.jar", content(200 * 1024, 'x'));
+        File bar = write("bar.jar", "bar");
+
+        Map<File, String> fingerprints = calculate(foo, fooCopy, bar);
+
+        assertEquals(fingerprints.get(foo), fingerprints.get(fooCopy));
+        assertFalse(fingerprints.get(foo).equals(fingerprints.get(bar)));
+    }
+
+    @Test
+    public void shouldDistinguishFilesDifferingOnlyInTheMiddle() throws IOException {
+        byte[] content = content(200 * 1024, 'x');
+        File foo = write("foo.jar", content);
+        content[100 * 1024] = 'y';
+        File bar = write("bar.jar", content);
+
+        Map<File, String> fingerprints = calculate(foo, bar);
+
+        assertFalse(fingerprints.get(foo).equals(fingerprints.get(bar)));
+    }
+
+    @Test
+    public void shouldDistinguishSmallFilesOfSameSize() throws IOException {
+        File foo = write("foo.jar", "foo");
+        File bar = write("bar.jar", "bar");
+        File barCopy = write("dist/bar.jar", "bar");
+
+        Map<File, String> fingerprints = calculate(foo, bar, barCopy);
+
+        assertFalse(fingerprints.get(foo).equals(fingerprints.get(bar)));
+        assertEquals(fingerprints.get(bar), fingerprints.get(barCopy));
+    }
+
+    @Test
+    public void shouldRecordUnreadableFilesAndContinue() throws IOException {
+        File foo = write("foo.jar", "foo");
+        File fooCopy = write("dist/foo.jar", "foo");
+        File missing = new File(dir, "missing.jar");
+        File otherMissing = new File(dir, "dist/missing.jar");
+
+        ContentFingerprints contentFingerprints = new ContentFingerprints("SHA-1", executorService, new FileDigests());
+        Map<File, String> fingerprints = contentFingerprints.calculate(Arrays.asList(foo, fooCopy, missing, otherMissing));
+
+        assertEquals(fingerprints.get(foo), fingerprints.get(fooCopy));
+        assertFalse(fingerprints.containsKey(missing));
+        assertFalse(fingerprints.containsKey(otherMissing));
+        assertEquals(2, contentFingerprints.getFailures().size());
+        assertTrue(contentFingerprints.getFailures().containsKey(missing));
+    }
+
+    private Map<File, String> calculate(File... files) {
+        return new ContentFingerprints("SHA-1", executorService, new FileDigests()).calculate(Arrays.asList(files));
+    }
+
+    private File write(String name, String content) throws IOException {
+        return write(name, content.getBytes("UTF-8"));
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        File file = new File(dir, name);
+        FileUtils.writeByteArrayToFile(file, content);
+        return file;
+    }
+
+    private static byte[] content(int size, char c) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) c);
+        return content;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for remote repository, answers configured responses and records received requests.
+ */
+public class LocalHttpServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Response> responses = new ConcurrentHashMap<String, Response>();
+    private final Map<String, Headers> lastRequestHeaders = new ConcurrentHashMap<String, Headers>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Map<Integer, Long> delayedRequests = new ConcurrentHashMap<Integer, Long>();
+    private volatile long latency;
+
+    private LocalHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                LocalHttpServer.this.handle(exchange);
+            }
+        });
+    }
+
+    public static LocalHttpServer start() throws IOException {
+        LocalHttpServer localHttpServer = new LocalHttpServer();
+        localHttpServer.server.start();
+        return localHttpServer;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Configures response for given path, headers are given as name and value pairs, 
+     * paths without configured response are answered with 404.
+     */
+    public void respond(String path, int status, String... headers) {
+        responses.put(path, new Response(status, headers));
+    }
+
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Answers n-th received request, counted from 1, with given latency instead of the common one.
+     */
+    public void delayRequest(int request, long latency) {
+        delayedRequests.put(request, latency);
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public String getLastRequestHeader(String path, String name) {
+        Headers headers = lastRequestHeaders.get(path);
+        return headers != null ? headers.getFirst(name) : null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(1);
+        int request = requests.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        while (true) {
+            int max = maxInFlight.get();
+            if (current <= max || maxInFlight.compareAndSet(max, current)) {
+                break;
+            }
+        }
+        try {
+            lastRequestHeaders.put(path, exchange.getRequestHeaders());
+            long requestLatency = delayedRequests.containsKey(request) ? delayedRequests.get(request) : latency;
+            if (requestLatency > 0) {
+                Thread.sleep(requestLatency);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // request is completed before client receives response, which may start next request immediately
+            inFlight.decrementAndGet();
+        }
+        try {
+
+            Response response = responses.get(path);
+            int status = response != null ? response.status : 404;
+            if (response != null) {
+                for (int i = 0; i < response.headers.length; i += 2) {
+                    exchange.getResponseHeaders().add(response.headers[i], response.headers[i + 1]);
+                }
+                String etag = exchange.getResponseHeaders().getFirst("ETag");
+                if (status == 200 && etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    status = 304;
+                }
+            }
+            exchange.sendResponseHeaders(status, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final String[] headers;
+
+        private Response(int status, String[] headers) {
+            this.status = status;
+            this.headers = headers;
+        }
+
+    }
+
+}
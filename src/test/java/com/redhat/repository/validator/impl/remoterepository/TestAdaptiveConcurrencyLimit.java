@@ -0,0 +1,76 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TestAdaptiveConcurrencyLimit {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    public void shouldIncreaseLimitWhileAllPermitsAreUsed() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10);
+        limit.acquire();
+        limit.acquire();
+
+        limit.onResponse(LATENCY, 200);
+        limit.onResponse(LATENCY, 200);
+        limit.onResponse(LATENCY, 200);
+
+        assertEquals(3, limit.getLimit());
+        assertEquals(3, limit.getCompleted());
+    }
+
+    @Test
+    public void shouldNotIncreaseLimitOfIdleRemote() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 10);
+        limit.acquire();
+
+        for (int i = 0; i < 10; i++) {
+            limit.onResponse(LATENCY, 200);
+        }
+
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void shouldNotExceedMaxLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 3);
+        limit.acquire();
+        limit.acquire();
+
+        for (int i = 0; i < 100; i++) {
+            limit.onResponse(LATENCY, 200);
+            if (limit.getInFlight() < limit.getLimit()) {
+                limit.acquire();
+            }
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void shouldHalveLimitWhenThrottled() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 10);
+
+        limit.onResponse(LATENCY, 503);
+        assertEquals(4, limit.getLimit());
+        assertEquals(1, limit.getThrottled());
+    }
+
+    @Test
+    public void shouldHalveLimitWhenLatencyGrows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 10);
+        limit.onResponse(LATENCY, 200);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onResponse(TimeUnit.MILLISECONDS.toNanos(200), 200);
+        }
+
+        assertEquals(4, limit.getLimit());
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpStatus;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.internal.FileDigests;
+
+public class TestRemoteChecksumCache {
+
+    private final File repoDir = new File("target/remote-checksum-cache-repo");
+    private final File cacheFile = new File("target/remote-checksum-cache-test");
+    private final File fooJar = new File(repoDir, "com/acme/foo/1.0/foo-1.0.jar");
+    private final File barJar = new File(repoDir, "com/acme/bar/1.0/bar-1.0.jar");
+
+    private LocalHttpServer server;
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+        FileUtils.deleteQuietly(cacheFile);
+        FileUtils.write(fooJar, "foo");
+        FileUtils.write(barJar, "bar");
+        server = LocalHttpServer.start();
+        server.respond("com/acme/foo/1.0/foo-1.0.jar", 200, "X-Checksum-Sha1", FileDigests.calculate(fooJar, "SHA-1"), "ETag", "\"foo-etag\"");
+    }
+
+    @After
+    public void dispose() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldRevalidateFoundArtifactAndSkipMissingArtifact() {
+        ValidatorContext ctx1 = validate();
+        assertTrue(ctx1.isSuccess());
+        assertEquals(2, server.getRequests());
+        assertNull(server.getLastRequestHeader("com/acme/foo/1.0/foo-1.0.jar", "If-None-Match"));
+        assertTrue(cacheFile.isFile());
+
+        ValidatorContext ctx2 = validate();
+        assertTrue(ctx2.isSuccess());
+        assertEquals(3, server.getRequests());
+        assertEquals("\"foo-etag\"", server.getLastRequestHeader("com/acme/foo/1.0/foo-1.0.jar", "If-None-Match"));
+    }
+
+    @Test
+    public void shouldReportCollisionOfRevalidatedArtifact() throws IOException {
+        validate();
+        FileUtils.write(fooJar, "foo-changed");
+
+        ValidatorContext ctx = validate();
+
+        assertEquals(1, ctx.getExceptions(RemoteRepositoryCollisionException.class).size());
+    }
+
+    @Test
+    public void shouldRequestMissingArtifactAgainAfterExpiration() {
+        validate();
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 2);
+        validator.setChecksumCache(new RemoteChecksumCache(cacheFile, -1));
+        new ValidationExecutor(validator).execute(new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList()));
+
+        assertEquals(4, server.getRequests());
+    }
+
+    @Test
+    public void shouldKeepEntriesPutAfterSave() {
+        RemoteChecksumCache cache = new RemoteChecksumCache(cacheFile);
+        cache.put(URI.create("http://foo/foo.jar"), new RemoteArtifactResponse(HttpStatus.SC_OK, "HTTP/1.1 200 OK", "abc", "\"foo\ttag\"", null, 1L));
+        cache.save();
+        cache.put(URI.create("http://foo/bar.jar"), new RemoteArtifactResponse(HttpStatus.SC_NOT_FOUND, "HTTP/1.1 404 Not Found", null, null, null, 2L));
+        cache.save();
+
+        RemoteChecksumCache reloaded = new RemoteChecksumCache(cacheFile, Long.MAX_VALUE);
+        RemoteArtifactResponse foo = reloaded.get(URI.create("http://foo/foo.jar"));
+        assertEquals("abc", foo.getChecksum());
+        assertEquals("\"foo\ttag\"", foo.getEtag());
+        assertNull(foo.getLastModified());
+        assertEquals(HttpStatus.SC_NOT_FOUND, reloaded.get(URI.create("http://foo/bar.jar")).getStatus());
+    }
+
+    @Test
+    public void shouldIgnoreCacheFileOfUnknownFormat() throws IOException {
+        ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(FileUtils.openOutputStream(cacheFile)));
+        out.writeInt(1);
+        out.writeObject(new HashMap<String, Object>());
+        out.close();
+
+        ValidatorContext ctx = validate();
+
+        assertTrue(ctx.isSuccess());
+        assertEquals(2, server.getRequests());
+    }
+
+    private ValidatorContext validate() {
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 2);
+        validator.setChecksumCache(new RemoteChecksumCache(cacheFile));
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+        new ValidationExecutor(validator).execute(ctx);
+        return ctx;
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.ValidatorContext;
+
+public class TestRemoteRepositoryAbstractValidator {
+
+    private final File repoDir = new File("target/remote-repository-validator");
+
+    private LocalHttpServer server;
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+        for (int i = 0; i < 20; i++) {
+            FileUtils.write(new File(repoDir, "com/acme/foo" + i + "/1.0/foo" + i + "-1.0.jar"), "foo" + i);
+        }
+        server = LocalHttpServer.start();
+        server.setLatency(20);
+    }
+
+    @After
+    public void dispose() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldBoundRequestsInFlightAndCompleteAllArtifacts() {
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 3);
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        new ValidationExecutor(validator).execute(ctx);
+
+        assertTrue(ctx.isSuccess());
+        assertEquals(20, server.getRequests());
+        assertTrue("max in flight " + server.getMaxInFlight(), server.getMaxInFlight() <= 3);
+    }
+
+    @Test
+    public void shouldIncreaseConcurrencyWhileRemoteKeepsUp() throws IOException {
+        for (int i = 20; i < 60; i++) {
+            FileUtils.write(new File(repoDir, "com/acme/foo" + i + "/1.0/foo" + i + "-1.0.jar"), "foo" + i);
+        }
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 10);
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        new ValidationExecutor(validator).execute(ctx);
+
+        assertTrue(ctx.isSuccess());
+        assertTrue("limit " + validator.getConcurrencyLimit(), validator.getConcurrencyLimit().getLimit() > 4);
+        assertTrue("max in flight " + server.getMaxInFlight(), server.getMaxInFlight() > 4);
+        assertEquals(60, validator.getConcurrencyLimit().getCompleted());
+    }
+
+    @Test
+    public void shouldRetryThrottledRequest() {
+        server.respond("com/acme/foo0/1.0/foo0-1.0.jar", 503, "Retry-After", "0");
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 3);
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        new ValidationExecutor(validator).execute(ctx);
+
+        assertEquals(1, ctx.getExceptions(RemoteRepositoryCollisionException.class).size());
+        assertEquals(4, validator.getConcurrencyLimit().getThrottled());
+        assertEquals(23, server.getRequests());
+    }
+
+    @Test
+    public void shouldHedgeSlowRequest() throws IOException {
+        for (int i = 20; i < 40; i++) {
+            FileUtils.write(new File(repoDir, "com/acme/foo" + i + "/1.0/foo" + i + "-1.0.jar"), "foo" + i);
+        }
+        server.setLatency(5);
+        server.delayRequest(35, 10000);
+        RemoteRepositoryCollisionValidator validator = new RemoteRepositoryCollisionValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 4);
+        validator.setHedgingBudget(0.2);
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        long start = System.currentTimeMillis();
+        new ValidationExecutor(validator).execute(ctx);
+
+        assertTrue(ctx.isSuccess());
+        assertTrue("validated in " + (System.currentTimeMillis() - start) + " ms", System.currentTimeMillis() - start < 5000);
+        assertTrue(validator.getRequestHedging().toString(), validator.getRequestHedging().getHedgesWon() >= 1);
+        assertTrue(validator.getRequestHedging().getHedged() <= 0.2 * validator.getRequestHedging().getRequests());
+    }
+
+    @Test
+    public void shouldReportEachFailedArtifact() {
+        RemoteRepositoryCompareValidator validator = new RemoteRepositoryCompareValidator(server.getUrl(), new ChecksumProviderArtifactory(), trueFileFilter(), 3);
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        new ValidationExecutor(validator).execute(ctx);
+
+        assertEquals(20, ctx.getExceptions(RemoteRepositoryCompareException.class).size());
+    }
+
+}
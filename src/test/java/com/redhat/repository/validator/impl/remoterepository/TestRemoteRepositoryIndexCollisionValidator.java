@@ -0,0 +1,108 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.internal.FileDigests;
+
+public class TestRemoteRepositoryIndexCollisionValidator {
+
+    private final File repoDir = new File("target/remote-index-repo");
+    private final File indexFile = new File("target/remote-index/index.txt");
+    private final File nexusIndexFile = new File("target/remote-index/nexus-maven-repository-index.gz");
+    private final File fooJar = new File(repoDir, "com/acme/foo/1.0/foo-1.0.jar");
+    private final File fooSources = new File(repoDir, "com/acme/foo/1.0/foo-1.0-sources.jar");
+    private final File barPom = new File(repoDir, "com/acme/bar/1.0/bar-1.0.pom");
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+        FileUtils.write(fooJar, "foo");
+        FileUtils.write(fooSources, "foo-sources");
+        FileUtils.write(barPom, "bar");
+    }
+
+    @Test
+    public void shouldFindCollisionsInTextIndex() throws IOException {
+        FileUtils.writeLines(indexFile, Arrays.asList(
+                "# stand-in index",
+                "com.acme:foo:1.0 " + FileDigests.calculate(fooJar, "SHA-1") + " 3",
+                "com.acme:foo:jar:sources:1.0 " + FileDigests.calculate(fooJar, "SHA-1") + " 11",
+                "com.acme:bar:pom:1.0 " + FileDigests.calculate(fooJar, "SHA-1") + " 2",
+                "com.acme:baz:1.0 " + FileDigests.calculate(fooJar, "SHA-1")));
+
+        ValidatorContext ctx = validate(new RemoteRepositoryIndexCollisionValidator("http://localhost/", indexFile.toURI().toString(), new RemoteIndexReaderText()));
+
+        assertEquals(2, ctx.getExceptions(RemoteRepositoryCollisionException.class).size());
+        assertEquals(1, ctx.getErrors(fooSources).size());
+        assertEquals(1, ctx.getErrors(barPom).size());
+    }
+
+    @Test
+    public void shouldReadNexusIndex() throws IOException {
+        FileUtils.forceMkdir(nexusIndexFile.getParentFile());
+        DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(nexusIndexFile)));
+        try {
+            out.writeByte(1);
+            out.writeLong(System.currentTimeMillis());
+            writeDocument(out, "DESCRIPTOR", "NexusIndex", "IDXINFO", "1.0|central");
+            writeDocument(out, "u", "com.acme|foo|1.0|NA|jar", "i", "jar|1|3|0|0|0|jar", "1", FileDigests.calculate(fooJar, "SHA-1").toUpperCase());
+            writeDocument(out, "u", "com.acme|foo|1.0|sources|jar", "i", "jar|1|11|0|0|0|jar", "1", FileDigests.calculate(fooJar, "SHA-1"));
+            writeDocument(out, "del", "com.acme|bar|1.0|NA|pom");
+        } finally {
+            out.close();
+        }
+
+        List<RemoteIndexEntry> entries = new RemoteIndexReaderNexus().read(FileUtils.openInputStream(nexusIndexFile));
+        assertEquals(2, entries.size());
+        assertEquals("com/acme/foo/1.0/foo-1.0.jar", entries.get(0).getPath());
+        assertEquals(3, entries.get(0).getSize());
+        assertEquals("com/acme/foo/1.0/foo-1.0-sources.jar", entries.get(1).getPath());
+
+        ValidatorContext ctx = validate(new RemoteRepositoryIndexCollisionValidator("http://localhost/", nexusIndexFile.toURI().toString(), new RemoteIndexReaderNexus()));
+        assertEquals(1, ctx.getErrors().size());
+        assertEquals(1, ctx.getErrors(fooSources).size());
+    }
+
+    @Test
+    public void shouldReportUnreadableIndex() {
+        ValidatorContext ctx = validate(new RemoteRepositoryIndexCollisionValidator("http://localhost/", new File("target/remote-index/missing").toURI().toString(), new RemoteIndexReaderText()));
+
+        assertFalse(ctx.isSuccess());
+        assertEquals(1, ctx.getExceptions(RemoteRepositoryCollisionException.class).size());
+    }
+
+    private ValidatorContext validate(RemoteRepositoryIndexCollisionValidator validator) {
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+        new ValidationExecutor(validator).execute(ctx);
+        return ctx;
+    }
+
+    private static void writeDocument(DataOutputStream out, String... fields) throws IOException {
+        out.writeInt(fields.length / 2);
+        for (int i = 0; i < fields.length; i += 2) {
+            out.write(0);
+            out.writeUTF(fields[i]);
+            byte[] value = fields[i + 1].getBytes("UTF-8");
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.redhat.repository.validator.impl.remoterepository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestRequestHedging {
+
+    @Test
+    public void shouldHedgeAfterRunning95thPercentile() {
+        RequestHedging hedging = new RequestHedging(0.1);
+        for (int i = 1; i < 20; i++) {
+            hedging.record(i);
+        }
+        assertEquals(-1, hedging.getDelay());
+
+        hedging.record(100);
+        assertEquals(19, hedging.getDelay());
+    }
+
+    @Test
+    public void shouldCapHedgedRequestsByBudget() {
+        RequestHedging hedging = new RequestHedging(0.1);
+        for (int i = 0; i < 20; i++) {
+            hedging.onRequest();
+        }
+
+        assertTrue(hedging.canHedge());
+        assertTrue(hedging.tryHedge());
+        assertTrue(hedging.tryHedge());
+        assertFalse(hedging.canHedge());
+        assertFalse(hedging.tryHedge());
+        assertEquals(2, hedging.getHedged());
+    }
+
+}
@@ -1,21 +1,34 @@
 package com.redhat.repository.validator.impl.signature;
 
 import static com.redhat.repository.validator.impl.TestUtil.pom;
+import static com.redhat.repository.validator.impl.signature.JarSignatureValidatorMode.VERIFY_JAR_IS_SIGNED;
 import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.junit.Test;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.redhat.repository.validator.ValidationExecutor;
 import com.redhat.repository.validator.impl.AbstractTest;
 import com.redhat.repository.validator.impl.signature.JarSignatureVerificationException;
 import com.redhat.repository.validator.impl.signature.JarSignedException;
+import com.redhat.repository.validator.impl.signature.JarUnsignedException;
 
 @ContextConfiguration
 public class TestJarSignatureValidator extends AbstractTest {
@@ -58,9 +71,118 @@ public class TestJarSignatureValidator extends AbstractTest {
         FileUtils.deleteQuietly(fooJar);
         FileUtils.copyFile(new File("target/test-classes/empty-signed-damaged.jar"), fooJar);
 
+        new ValidationExecutor(signatureRequiringValidator(0)).execute(ctx);
+
+        assertExpectedException(JarSignatureVerificationException.class, "Unable to verify signature for file com/acme/foo/1.0/foo-1.0.jar");
+    }
+
+    @Test
+    public void shouldFindDigestErrorOfDamagedSignedJar() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+
+        // entry changed after signing, so its digest doesn't match manifest
+        FileUtils.deleteQuietly(fooJar);
+        ZipInputStream in = new ZipInputStream(new FileInputStream("target/test-classes/empty-signed-rsa.jar"));
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(fooJar));
+        try {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().equals("empty.txt")) {
+                    out.write("damaged".getBytes("UTF-8"));
+                } else {
+                    IOUtils.copy(in, out);
+                }
+                out.closeEntry();
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+
+        new ValidationExecutor(signatureRequiringValidator(0)).execute(ctx);
+
+        assertExpectedException(JarSignatureVerificationException.class, "Unable to verify signature for file com/acme/foo/1.0/foo-1.0.jar");
+        assertTrue(ctx.getErrors().get(0).getException().getCause().getMessage().contains("digest error for empty.txt"));
+    }
+
+    @Test
+    public void shouldFindDamagedSignedJarAsSignedWithoutVerification() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+
+        FileUtils.deleteQuietly(fooJar);
+        FileUtils.copyFile(new File("target/test-classes/empty-signed-damaged.jar"), fooJar);
+
         validationExecutor.execute(ctx);
 
+        assertExpectedException(JarSignedException.class, "File com/acme/foo/1.0/foo-1.0.jar is signed");
+        assertEquals(1, ctx.getErrors().size());
+    }
+
+    @Test
+    public void shouldSuccessWithSignedJarWhenSignatureIsRequired() throws IOException {
+        // signed by SHA256withRSA, which is accepted by current jvms, unlike SHA1withDSA of empty-signed.jar
+        pom().artifactId("foo").create(repoFooDir, "target/test-classes/empty-signed-rsa.jar");
+
+        new ValidationExecutor(signatureRequiringValidator(0)).execute(ctx);
+
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldFindUnsignedJarWhenSignatureIsRequired() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+
+        new ValidationExecutor(signatureRequiringValidator(0)).execute(ctx);
+
+        assertExpectedException(JarUnsignedException.class, "File com/acme/foo/1.0/foo-1.0.jar is unsigned");
+    }
+
+    @Test
+    public void shouldFindJarWithoutAcceptedSignatureWhenSignatureIsRequired() throws IOException {
+        pom().artifactId("foo").create(repoFooDir);
+
+        // signature file without signature block, so no entry is signed
+        FileUtils.deleteQuietly(fooJar);
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(fooJar));
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/FOO.SF"));
+            out.write("Signature-Version: 1.0\r\n\r\n".getBytes("UTF-8"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("foo.txt"));
+            out.write("foo".getBytes("UTF-8"));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+
+        new ValidationExecutor(signatureRequiringValidator(0)).execute(ctx);
+
         assertExpectedException(JarSignatureVerificationException.class, "Unable to verify signature for file com/acme/foo/1.0/foo-1.0.jar");
+        assertEquals(1, ctx.getErrors().size());
+        assertEquals("no entry is signed by accepted signature", ctx.getErrors().get(0).getException().getCause().getMessage());
+    }
+
+    @Test
+    public void shouldFindUnsignedJarsInParallel() throws IOException {
+        for (int i = 0; i < 16; i++) {
+            pom().artifactId("foo" + i).create(repoFooDir);
+        }
+        pom().artifactId("bar").create(repoFooDir, "target/test-classes/empty-signed-rsa.jar");
+
+        new ValidationExecutor(signatureRequiringValidator(4)).execute(ctx);
+
+        assertEquals(16, ctx.getErrors().size());
+        for (int i = 0; i < 16; i++) {
+            assertExpectedException(JarUnsignedException.class, "File com/acme/foo" + i + "/1.0/foo" + i + "-1.0.jar is unsigned");
+        }
+    }
+
+    private JarSignatureValidator signatureRequiringValidator(int threads) {
+        JarSignatureValidator validator = new JarSignatureValidator(VERIFY_JAR_IS_SIGNED);
+        ReflectionTestUtils.setField(validator, "fileFilter", trueFileFilter());
+        ReflectionTestUtils.setField(validator, "jarSignatureThreads", threads);
+        return validator;
     }
 
-}
\ No newline at end of file
+}
@@ -103,6 +103,23 @@ public class TestSuspiciousFileValidator extends AbstractTest {
         assertExpectedException(SuspiciousFileException.class, "File com/acme/foo/1.0/foo-1.0-sources.jar.sha1 is checksum without source file");
     }
 
+    @Test
+    public void shouldAcceptSha256AndSha512Checksums() {
+        touch("com/acme/foo/1.0/foo-1.0.jar.sha256");
+        touch("com/acme/foo/1.0/foo-1.0.jar.sha512");
+        validationExecutor.execute(ctx);
+        assertSuccess();
+    }
+
+    @Test
+    public void shouldFindSuspiciousSha256AndSha512Checksums() {
+        touch("com/acme/bar/1.0/bar-1.0.jar.sha256");
+        touch("com/acme/bar/1.0/bar-1.0.jar.sha512");
+        validationExecutor.execute(ctx);
+        assertExpectedException(SuspiciousFileException.class, "File com/acme/bar/1.0/bar-1.0.jar.sha256 is checksum without source file");
+        assertExpectedException(SuspiciousFileException.class, "File com/acme/bar/1.0/bar-1.0.jar.sha512 is checksum without source file");
+    }
+
     @Test
     public void shouldFindSuspiciousJar() throws IOException {
         touch("com/acme/bar/1.0/bar-1.0.jar");
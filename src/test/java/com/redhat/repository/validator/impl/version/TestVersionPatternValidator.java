@@ -4,6 +4,7 @@ import static com.redhat.repository.validator.impl.TestUtil.pom;
 import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.maven.model.Model;
 import org.junit.Test;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -72,4 +73,14 @@ public class TestVersionPatternValidator extends AbstractTest {
         }
     }
 
+    @Test
+    public void shouldFailWithoutParentInLocalRepository() {
+        Model parent = pom().artifactId("foo-parent").packaging("pom").version("1.0-redhat-1").model();
+        pom().artifactId("foo-child").version("1.0").parent(parent).create(repoFooDir);
+
+        validationExecutor.execute(ctx);
+
+        assertExpectedException(VersionPatternException.class, "1.0");
+    }
+
 }
\ No newline at end of file
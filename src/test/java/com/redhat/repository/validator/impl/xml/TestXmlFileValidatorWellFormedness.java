@@ -0,0 +1,67 @@
+package com.redhat.repository.validator.impl.xml;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.junit.Test;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.impl.AbstractTest;
+
+@ContextConfiguration
+public class TestXmlFileValidatorWellFormedness extends AbstractTest {
+
+    @Configuration
+    public static class TestConfiguration {
+
+        @Bean
+        public IOFileFilter xmlFileValidatorFilter() {
+            return trueFileFilter();
+        }
+
+    }
+
+    @Inject
+    private AutowireCapableBeanFactory beanFactory;
+
+    private final File validXmlFile = new File(repoFooDir, "settings-valid.xml");
+    private final File notValidXmlFile = new File(repoFooDir, "settings-not-valid.xml");
+    private final File sourceXmlFile = new File("target/test-classes/TestXmlFileValidator-settings.xml");
+
+    @Test
+    public void validXML_shouldSuccess() throws IOException {
+        FileUtils.copyFile(sourceXmlFile, validXmlFile);
+
+        validate();
+        assertSuccess();
+    }
+
+    @Test
+    public void notValidXML_delBracket_shouldFail() throws IOException {
+        FileUtils.copyFile(sourceXmlFile, notValidXmlFile);
+
+        String xmlText = FileUtils.readFileToString(notValidXmlFile);
+        xmlText = xmlText.replace("<profiles>", "<profiles");
+        FileUtils.writeStringToFile(notValidXmlFile, xmlText);
+
+        validate();
+        assertExpectedException(XmlVerificationException.class, "Xml file settings-not-valid.xml has following errors (183, 5): Element type \"profiles\" must be followed by either attribute specifications, \">\" or \"/>\".");
+    }
+
+    private void validate() {
+        XmlFileValidator xmlFileValidator = new XmlFileValidator(XmlFileValidatorMode.VERIFY_WELL_FORMEDNESS);
+        beanFactory.autowireBean(xmlFileValidator);
+        new ValidationExecutor(xmlFileValidator).execute(ctx);
+    }
+
+}
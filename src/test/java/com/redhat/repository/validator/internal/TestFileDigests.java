@@ -0,0 +1,88 @@
+package com.redhat.repository.validator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.util.ChecksumUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFileDigests {
+
+    private final File file = new File("target/digests/foo-1.0.jar");
+    private final FileDigests fileDigests = new FileDigests();
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.write(file, "foo");
+    }
+
+    @Test
+    public void shouldCalculateSameDigestsLikeChecksumUtils() throws IOException {
+        Map<String, Object> expected = ChecksumUtils.calc(file, Arrays.asList("MD5", "SHA-1", "SHA-256"));
+
+        Map<String, String> digests = fileDigests.digest(file, Collections.singleton("SHA-256"));
+
+        assertEquals(expected.get("MD5"), digests.get("MD5"));
+        assertEquals(expected.get("SHA-1"), digests.get("SHA-1"));
+        assertEquals(expected.get("SHA-256"), digests.get("SHA-256"));
+        assertEquals(expected.get("SHA-1"), fileDigests.digest(file, "sha1"));
+        assertEquals(expected.get("SHA-256"), FileDigests.calculate(file, "SHA-256"));
+    }
+
+    @Test
+    public void shouldReuseDigestsOfUnchangedFile() throws IOException {
+        Map<String, String> digests1 = fileDigests.digest(file, Collections.singleton("MD5"));
+        Map<String, String> digests2 = fileDigests.digest(file, Collections.singleton("SHA-1"));
+
+        assertSame(digests1, digests2);
+    }
+
+    @Test
+    public void shouldRecalculateDigestsOfChangedFile() throws IOException {
+        String sha1 = fileDigests.digest(file, "SHA-1");
+        FileUtils.write(file, "foo-changed");
+
+        assertFalse(sha1.equals(fileDigests.digest(file, "SHA-1")));
+    }
+
+    @Test
+    public void shouldAddMissingAlgorithmOnceForConcurrentCallers() throws Exception {
+        fileDigests.digest(file, "SHA-1");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, String>>> futures = new ArrayList<Future<Map<String, String>>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(new Callable<Map<String, String>>() {
+                    @Override
+                    public Map<String, String> call() throws IOException {
+                        return fileDigests.digest(file, Collections.singleton("SHA-256"));
+                    }
+                }));
+            }
+            Map<String, String> digests = futures.get(0).get();
+            for (Future<Map<String, String>> future : futures) {
+                assertSame(digests, future.get());
+            }
+            assertSame(digests, fileDigests.digest(file, Collections.singleton("MD5")));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
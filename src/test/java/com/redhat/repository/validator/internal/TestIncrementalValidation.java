@@ -0,0 +1,217 @@
+package com.redhat.repository.validator.internal;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.nameFileFilter;
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.io.DefaultModelReader;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.io.BaseEncoding;
+import com.redhat.repository.validator.ValidationError;
+import com.redhat.repository.validator.ValidationExecutor;
+import com.redhat.repository.validator.Validator;
+import com.redhat.repository.validator.ValidatorContext;
+import com.redhat.repository.validator.ValidatorExecution;
+import com.redhat.repository.validator.impl.ModelValidator;
+
+public class TestIncrementalValidation {
+
+    private final File repoDir = new File("target/incremental-repo");
+    private final File stateFile = new File("target/incremental-state");
+    private final File fooDir = new File(repoDir, "com/acme/foo/1.0");
+    private final File barDir = new File(repoDir, "com/acme/bar/1.0");
+
+    private final RecordingValidator recordingValidator = new RecordingValidator();
+    private final ValidationExecutor validationExecutor = new ValidationExecutor(0, new IncrementalValidation(stateFile, new DefaultModelReader()), recordingValidator);
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+        FileUtils.deleteQuietly(stateFile);
+        FileUtils.write(new File(fooDir, "foo-1.0.pom"), pom("foo", "<packaging>pom</packaging>"));
+        FileUtils.write(new File(fooDir, "foo-1.0.bad"), "bad");
+        FileUtils.write(new File(barDir, "bar-1.0.pom"), pom("bar", "<parent><groupId>com.acme</groupId><artifactId>foo</artifactId><version>1.0</version></parent>"));
+    }
+
+    @Test
+    public void shouldValidateWholeRepositoryWithoutState() {
+        ValidatorContext ctx = validate();
+
+        assertEquals(3, recordingValidator.inspected.size());
+        assertEquals(1, ctx.getErrors().size());
+        assertTrue(stateFile.isFile());
+    }
+
+    @Test
+    public void shouldCarryOverFindingsOfUnchangedDirectories() {
+        validate();
+        ValidatorContext ctx = validate();
+
+        assertTrue(recordingValidator.inspected.isEmpty());
+        assertEquals(1, ctx.getErrors().size());
+        assertEquals(new File(fooDir, "foo-1.0.bad"), ctx.getErrors().get(0).getFile());
+        assertEquals(recordingValidator, ctx.getErrors().get(0).getValidator());
+    }
+
+    @Test
+    public void shouldValidateOnlyChangedDirectory() throws IOException {
+        validate();
+        FileUtils.write(new File(barDir, "bar-1.0.jar"), "jar");
+        ValidatorContext ctx = validate();
+
+        assertEquals(set(new File(barDir, "bar-1.0.pom"), new File(barDir, "bar-1.0.jar")), recordingValidator.inspected);
+        assertEquals(1, ctx.getErrors().size());
+    }
+
+    @Test
+    public void shouldDropFindingsOfRemovedFiles() {
+        validate();
+        FileUtils.deleteQuietly(new File(fooDir, "foo-1.0.bad"));
+        ValidatorContext ctx = validate();
+
+        assertEquals(set(new File(fooDir, "foo-1.0.pom")), recordingValidator.inspected);
+        assertTrue(ctx.isSuccess());
+    }
+
+    @Test
+    public void shouldValidatePomsInheritingFromChangedPom() throws IOException {
+        validate();
+        FileUtils.write(new File(fooDir, "foo-1.0.pom"), pom("foo", "<packaging>pom</packaging><name>foo</name>"));
+        ValidatorContext ctx = validate();
+
+        assertEquals(set(new File(fooDir, "foo-1.0.pom"), new File(fooDir, "foo-1.0.bad"), new File(barDir, "bar-1.0.pom")), recordingValidator.inspected);
+        assertEquals(1, ctx.getErrors().size());
+    }
+
+    @Test
+    public void shouldValidateWholeRepositoryWithDamagedState() throws IOException {
+        validate();
+        FileUtils.write(stateFile, "damaged");
+        ValidatorContext ctx = validate();
+
+        assertEquals(3, recordingValidator.inspected.size());
+        assertEquals(1, ctx.getErrors().size());
+        assertTrue(stateFile.isFile());
+    }
+
+    @Test
+    public void shouldRefuseFindingsOfUnexpectedTypes() throws IOException {
+        validate();
+
+        // finding replaced by serialized object, which is not an exception
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new Date());
+        out.close();
+        List<String> lines = IOUtils.readLines(new GZIPInputStream(new FileInputStream(stateFile)), "UTF-8");
+        Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(stateFile)), "UTF-8");
+        try {
+            for (String line : lines) {
+                if (line.startsWith("finding\t")) {
+                    line = line.substring(0, line.lastIndexOf('\t') + 1) + BaseEncoding.base64().encode(bytes.toByteArray());
+                }
+                writer.write(line + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+        ValidatorContext ctx = validate();
+
+        assertEquals(set(new File(fooDir, "foo-1.0.pom"), new File(fooDir, "foo-1.0.bad")), recordingValidator.inspected);
+        assertEquals(1, ctx.getErrors().size());
+        assertEquals("bad file foo-1.0.bad", ctx.getErrors().get(0).getException().getMessage());
+    }
+
+    @Test
+    public void shouldValidateModelOfPomWithCarriedOverFindings() throws IOException {
+        File bazPom = new File(repoDir, "com/acme/baz/1.0/baz-1.0.pom");
+        FileUtils.write(bazPom, pom("baz", "<dependencies><dependency><groupId>com.acme</groupId><artifactId>foo</artifactId></dependency></dependencies>"));
+
+        ValidatorSupport validatorSupport = new ValidatorSupport();
+        ReflectionTestUtils.setField(validatorSupport, "modelBuilder", new DefaultModelBuilderFactory().newInstance());
+        ReflectionTestUtils.setField(validatorSupport, "modelBuildingRequestTemplate", new DefaultModelBuildingRequest());
+        ModelValidator modelValidator = new ModelValidator();
+        ReflectionTestUtils.setField(modelValidator, "fileFilter", nameFileFilter(bazPom.getName()));
+        ReflectionTestUtils.setField(modelValidator, "validatorSupport", validatorSupport);
+        ValidationExecutor validationExecutor = new ValidationExecutor(0, new IncrementalValidation(stateFile, new DefaultModelReader()), recordingValidator, modelValidator);
+
+        validate(validationExecutor);
+        ValidatorContext ctx = validate(validationExecutor);
+
+        assertTrue(recordingValidator.inspected.isEmpty());
+        Set<File> carriedOverFiles = new HashSet<File>();
+        for (ValidationError error : ctx.getErrors(recordingValidator)) {
+            carriedOverFiles.add(error.getFile());
+        }
+        assertEquals(set(new File(fooDir, "foo-1.0.bad"), bazPom), carriedOverFiles);
+        assertEquals(1, ctx.getErrors(modelValidator).size());
+        assertEquals(bazPom, ctx.getErrors(modelValidator).get(0).getFile());
+        assertTrue(ctx.getErrors(modelValidator).get(0).getException() instanceof ModelBuildingException);
+    }
+
+    private ValidatorContext validate() {
+        return validate(validationExecutor);
+    }
+
+    private ValidatorContext validate(ValidationExecutor validationExecutor) {
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository>emptyList());
+        recordingValidator.inspected.clear();
+        validationExecutor.execute(ctx);
+        return ctx;
+    }
+
+    private static String pom(String artifactId, String content) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>com.acme</groupId>"
+                + "<artifactId>" + artifactId + "</artifactId><version>1.0</version>" + content + "</project>";
+    }
+
+    private static Set<File> set(File... files) {
+        Set<File> result = new HashSet<File>();
+        Collections.addAll(result, files);
+        return result;
+    }
+
+    @ValidatorExecution(incremental = true)
+    private static class RecordingValidator implements Validator {
+
+        private final Set<File> inspected = new HashSet<File>();
+
+        @Override
+        public void validate(ValidatorContext ctx) {
+            for (File file : ctx.getRepositoryInventory().listFiles(trueFileFilter())) {
+                inspected.add(file);
+                if (file.getName().endsWith(".bad") || file.getName().startsWith("baz")) {
+                    ctx.addError(this, file, new Exception("bad file " + file.getName()));
+                }
+            }
+        }
+
+    }
+
+}
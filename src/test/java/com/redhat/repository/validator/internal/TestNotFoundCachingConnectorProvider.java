@@ -0,0 +1,144 @@
+package com.redhat.repository.validator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.spi.connector.ArtifactUpload;
+import org.eclipse.aether.spi.connector.MetadataDownload;
+import org.eclipse.aether.spi.connector.MetadataUpload;
+import org.eclipse.aether.spi.connector.RepositoryConnector;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.spi.log.NullLoggerFactory;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.ArtifactTransferException;
+import org.eclipse.aether.transfer.NoRepositoryConnectorException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestNotFoundCachingConnectorProvider {
+
+    private final RemoteRepository fooRepo = new RemoteRepository.Builder("foo", "default", "http://localhost/foo/").build();
+    private final RemoteRepository barRepo = new RemoteRepository.Builder("bar", "default", "http://localhost/bar/").build();
+    private final SessionCache cache = new SessionCache(16);
+    private final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+    private NotFoundCachingConnectorProvider provider;
+    private int downloads;
+    private boolean transientFailure;
+
+    @Before
+    public void init() {
+        session.setCache(cache);
+        provider = new NotFoundCachingConnectorProvider(new HashSet<RepositoryConnectorFactory>(Arrays.asList(new MissingConnectorFactory())), NullLoggerFactory.INSTANCE);
+    }
+
+    @Test
+    public void shouldLookupMissingArtifactOncePerRepository() throws Exception {
+        ArtifactDownload download = download("com.acme:foo:1.0");
+        get(fooRepo, download);
+        assertTrue(download.getException() instanceof ArtifactNotFoundException);
+
+        ArtifactDownload cachedDownload = download("com.acme:foo:1.0");
+        get(fooRepo, cachedDownload);
+        assertEquals(download.getException(), cachedDownload.getException());
+        assertEquals(1, downloads);
+
+        get(barRepo, download("com.acme:foo:1.0"));
+        get(fooRepo, download("com.acme:bar:1.0"));
+        assertEquals(3, downloads);
+    }
+
+    @Test
+    public void shouldForgetMissingArtifactsWithSessionCache() throws Exception {
+        get(fooRepo, download("com.acme:foo:1.0"));
+        cache.clear();
+        get(fooRepo, download("com.acme:foo:1.0"));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void shouldNotCacheWithoutSessionCache() throws Exception {
+        session.setCache(null);
+        get(fooRepo, download("com.acme:foo:1.0"));
+        get(fooRepo, download("com.acme:foo:1.0"));
+        assertEquals(2, downloads);
+    }
+
+    @Test
+    public void shouldRetryTransientFailure() throws Exception {
+        transientFailure = true;
+        ArtifactDownload download = download("com.acme:foo:1.0");
+        get(fooRepo, download);
+        assertFalse(download.getException() instanceof ArtifactNotFoundException);
+
+        transientFailure = false;
+        ArtifactDownload retriedDownload = download("com.acme:foo:1.0");
+        get(fooRepo, retriedDownload);
+        assertTrue(retriedDownload.getException() instanceof ArtifactNotFoundException);
+        assertEquals(2, downloads);
+    }
+
+    private void get(RemoteRepository repository, ArtifactDownload download) throws NoRepositoryConnectorException {
+        RepositoryConnector connector = provider.newRepositoryConnector(session, repository);
+        try {
+            connector.get(Collections.singletonList(download), null);
+        } finally {
+            connector.close();
+        }
+    }
+
+    private ArtifactDownload download(String coords) {
+        ArtifactDownload download = new ArtifactDownload(new DefaultArtifact(coords), null, new File("target/not-found-cache/file"), null);
+        assertNull(download.getException());
+        return download;
+    }
+
+    private class MissingConnectorFactory implements RepositoryConnectorFactory {
+
+        @Override
+        public RepositoryConnector newInstance(RepositorySystemSession session, final RemoteRepository repository) {
+            return new RepositoryConnector() {
+
+                @Override
+                public void get(Collection<? extends ArtifactDownload> artifactDownloads, Collection<? extends MetadataDownload> metadataDownloads) {
+                    for (ArtifactDownload download : artifactDownloads) {
+                        downloads++;
+                        if (transientFailure) {
+                            download.setException(new ArtifactTransferException(download.getArtifact(), repository, "Connection reset"));
+                        } else {
+                            download.setException(new ArtifactNotFoundException(download.getArtifact(), repository));
+                        }
+                    }
+                }
+
+                @Override
+                public void put(Collection<? extends ArtifactUpload> artifactUploads, Collection<? extends MetadataUpload> metadataUploads) {
+                }
+
+                @Override
+                public void close() {
+                }
+
+            };
+        }
+
+        @Override
+        public float getPriority() {
+            return 0;
+        }
+
+    }
+
+}
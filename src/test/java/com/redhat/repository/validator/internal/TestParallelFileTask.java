@@ -0,0 +1,40 @@
+package com.redhat.repository.validator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TestParallelFileTask {
+
+    @Test
+    public void shouldRethrowExceptionOfTaskAfterAllFilesAreProcessed() {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 20; i++) {
+            files.add(new File("file-" + i));
+        }
+        final AtomicInteger processed = new AtomicInteger();
+
+        try {
+            new ParallelFileTask("parallel-file-task-%d") {
+                @Override
+                protected void process(File file) {
+                    processed.incrementAndGet();
+                    if (file.getName().equals("file-3")) {
+                        throw new IllegalStateException("unable to process " + file);
+                    }
+                }
+            }.execute(files, 4);
+            fail("expected exception of task");
+        } catch (IllegalStateException e) {
+            assertEquals("unable to process file-3", e.getMessage());
+        }
+        assertEquals(20, processed.get());
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.redhat.repository.validator.internal;
+
+import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestRepositoryInventory {
+
+    private final File repoDir = new File("target/inventory-repo");
+    private final File fooDir = new File(repoDir, "com/acme/foo/1.0");
+    private final File emptyDir = new File(repoDir, "com/acme/empty");
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(repoDir);
+        FileUtils.forceMkdir(emptyDir);
+        FileUtils.write(new File(fooDir, "foo-1.0.pom"), "<project/>");
+        FileUtils.write(new File(fooDir, "foo-1.0.jar"), "jar");
+        FileUtils.touch(new File(fooDir, "foo-1.0.jar.sha1"));
+    }
+
+    @Test
+    public void shouldListSameFilesLikeFileUtils() {
+        RepositoryInventory inventory = RepositoryInventory.scan(repoDir);
+
+        assertEquals(
+                new HashSet<File>(FileUtils.listFiles(repoDir, trueFileFilter(), trueFileFilter())),
+                new HashSet<File>(inventory.listFiles(trueFileFilter())));
+        assertEquals(
+                new HashSet<File>(FileUtils.listFilesAndDirs(repoDir, trueFileFilter(), trueFileFilter())),
+                new HashSet<File>(inventory.listFilesAndDirs(trueFileFilter(), trueFileFilter())));
+        assertEquals(
+                new HashSet<File>(FileUtils.listFiles(repoDir, suffixFileFilter(".jar"), trueFileFilter())),
+                new HashSet<File>(inventory.listFiles(".jar", trueFileFilter())));
+    }
+
+    @Test
+    public void shouldKeepAttributes() {
+        RepositoryInventory inventory = RepositoryInventory.scan(repoDir);
+        File jar = new File(fooDir, "foo-1.0.jar");
+
+        assertEquals(3, inventory.size());
+        assertTrue(inventory.isFile(jar));
+        assertTrue(inventory.isDirectory(emptyDir));
+        assertTrue(inventory.listDirectory(emptyDir).isEmpty());
+        assertEquals(1, inventory.listDirectory(fooDir, ".pom").size());
+        assertEquals(3, inventory.length(jar));
+        assertFalse(inventory.contains(new File(fooDir, "bar-1.0.jar")));
+    }
+
+    @Test
+    public void shouldReturnEmptyInventoryForMissingDirectory() {
+        RepositoryInventory inventory = RepositoryInventory.scan(new File(repoDir, "missing"));
+
+        assertEquals(0, inventory.size());
+        assertTrue(inventory.listFilesAndDirs(trueFileFilter(), trueFileFilter()).isEmpty());
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.redhat.repository.validator.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryEvent.EventType;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.WorkspaceRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestResolutionLedger {
+
+    private final File dir = new File("target/ledger/com/acme/foo/1.0");
+    private final File jar = new File(dir, "foo-1.0.jar");
+    private final File pom = new File(dir, "foo-1.0.pom");
+
+    private final ResolutionLedger ledger = new ResolutionLedger(new FileDigests());
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(dir);
+        FileUtils.write(jar, "foo");
+        FileUtils.write(pom, "<project/>");
+    }
+
+    @Test
+    public void shouldTakeChecksumFromChecksumFile() throws IOException {
+        FileUtils.write(new File(dir, "foo-1.0.jar.sha1"), "ABCDEF  foo-1.0.jar");
+        resolved(jar);
+        resolved(pom);
+
+        assertEquals(Collections.singleton("abcdef"), ledger.getResolvedChecksums(".jar"));
+    }
+
+    @Test
+    public void shouldHashFileWithoutChecksumFile() throws IOException {
+        resolved(jar);
+
+        assertEquals(Collections.singleton(FileDigests.calculate(jar, "SHA-1")), ledger.getResolvedChecksums(".jar"));
+    }
+
+    @Test
+    public void shouldIgnoreArtifactResolvedFromWorkspace() {
+        Artifact artifact = new DefaultArtifact("com.acme:foo:1.0").setFile(jar);
+        ledger.artifactResolved(new RepositoryEvent.Builder(new DefaultRepositorySystemSession(), EventType.ARTIFACT_RESOLVED).setArtifact(artifact).setFile(jar).setRepository(new WorkspaceRepository("validated")).build());
+
+        assertEquals(Collections.emptyMap(), ledger.getResolvedFiles());
+    }
+
+    private void resolved(File file) {
+        Artifact artifact = new DefaultArtifact("com.acme:foo:" + file.getName().substring(file.getName().lastIndexOf('.') + 1) + ":1.0").setFile(file);
+        ledger.artifactResolved(new RepositoryEvent.Builder(new DefaultRepositorySystemSession(), EventType.ARTIFACT_RESOLVED).setArtifact(artifact).setFile(file).build());
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.redhat.repository.validator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Test;
+
+import com.redhat.repository.validator.ValidatorContext;
+
+public class TestSessionCache {
+
+    private final SessionCache cache = new SessionCache(2);
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        assertNull(cache.get(null, "foo"));
+        cache.put(null, "foo", "bar");
+        assertEquals("bar", cache.get(null, "foo"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedDescriptors() {
+        Map<Object, Object> descriptors = descriptors();
+        descriptors.put("a", "descriptor-a");
+        descriptors.put("b", "descriptor-b");
+        descriptors.get("a");
+        descriptors.put("c", "descriptor-c");
+
+        assertNotNull(descriptors.get("a"));
+        assertNull(descriptors.get("b"));
+        assertNotNull(descriptors.get("c"));
+        assertEquals(3, cache.getDescriptorHits());
+        assertEquals(1, cache.getDescriptorMisses());
+    }
+
+    @Test
+    public void shouldInvalidateOnNewRun() {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        session.setCache(cache);
+        File repoDir = new File("target/session-cache-repo");
+        repoDir.mkdirs();
+        ValidatorContext ctx = new ValidatorContext(repoDir, new File(""), Collections.<RemoteRepository> emptyList());
+
+        SessionCache.startRun(session, ctx);
+        descriptors().put("a", "descriptor-a");
+        SessionCache.startRun(session, ctx);
+        assertNotNull(descriptors().get("a"));
+
+        ctx.resetRepositoryInventory();
+        SessionCache.startRun(session, ctx);
+        assertNull(descriptors().get("a"));
+        assertEquals(0, cache.getDescriptorHits());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> descriptors() {
+        return (Map<Object, Object>) cache.get(null, SessionCache.DESCRIPTORS_KEY);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.redhat.repository.validator.internal;
+
+import static com.redhat.repository.validator.impl.TestUtil.pom;
+import static org.apache.commons.io.filefilter.FileFilterUtils.trueFileFilter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.junit.Test;
+
+import com.redhat.repository.validator.impl.AbstractTest;
+
+public class TestValidatorSupport extends AbstractTest {
+
+    @Inject
+    private ValidatorSupport validatorSupport;
+
+    private final File pomFile = new File(repoFooDir, "com/acme/foo/1.0/foo-1.0.pom");
+
+    @Test
+    public void shouldBuildModelOncePerRun() {
+        pom().artifactId("foo").create(repoFooDir);
+
+        ModelBuildingResult result1 = validatorSupport.buildModel(ctx, pomFile);
+        ModelBuildingResult result2 = validatorSupport.buildModel(ctx, pomFile);
+
+        assertNotNull(result1);
+        assertSame(result1, result2);
+    }
+
+    @Test
+    public void shouldRebuildModelInNextRun() {
+        pom().artifactId("foo").create(repoFooDir);
+
+        ModelBuildingResult result1 = validatorSupport.buildModel(ctx, pomFile);
+        ctx.resetRepositoryInventory();
+        ModelBuildingResult result2 = validatorSupport.buildModel(ctx, pomFile);
+
+        assertNotSame(result1, result2);
+    }
+
+    @Test
+    public void shouldIterateModelsInOrderOfPomFiles() {
+        for (int i = 0; i < 50; i++) {
+            pom().artifactId("foo" + i).create(repoFooDir);
+        }
+
+        List<File> expectedPomFiles = new ArrayList<File>();
+        for (File pomFile : ValidatorSupport.listPomFiles(ctx, trueFileFilter())) {
+            expectedPomFiles.add(pomFile.getAbsoluteFile());
+        }
+        List<File> orderedPomFiles = collectPomFiles(validatorSupport.effectiveModelIterator(ctx, trueFileFilter(), true));
+        List<File> unorderedPomFiles = collectPomFiles(validatorSupport.effectiveModelIterator(ctx, trueFileFilter(), false));
+
+        assertEquals(50, expectedPomFiles.size());
+        assertEquals(expectedPomFiles, orderedPomFiles);
+        assertEquals(new HashSet<File>(expectedPomFiles), new HashSet<File>(unorderedPomFiles));
+    }
+
+    private List<File> collectPomFiles(Iterator<Model> modelIterator) {
+        List<File> pomFiles = new ArrayList<File>();
+        while (modelIterator.hasNext()) {
+            pomFiles.add(modelIterator.next().getPomFile());
+        }
+        return pomFiles;
+    }
+
+}